@@ -0,0 +1,22 @@
+package com.github.assisstion.DynamicDebugger;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Runs the benchmarks selected on the command line (the usual JMH options)
+//with the allocation profiler, so every result comes with its allocation
+//rate and bytes allocated per operation
+public class BenchmarkMain{
+
+	public static void main(String[] args) throws RunnerException,
+	CommandLineOptionException{
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Time from DynamicVariableHolder.set until an updatable of the Debugger it
+//is attached to receives the value, through both dispatch hops (variable to
+//Debugger, Debugger to updatable)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushLatencyBenchmark{
+
+	protected Debugger<Object> debugger;
+	protected DynamicVariableHolder<Object> variable;
+	protected ReceivingUpdatable updatable;
+	protected int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		updatable = new ReceivingUpdatable();
+		debugger = new Debugger<Object>();
+		debugger.addUpdatable(updatable);
+		variable = new DynamicVariableHolder<Object>("latency", (Object) null);
+		debugger.attach(variable);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception{
+		debugger.close();
+	}
+
+	@Benchmark
+	public Object setToPush(){
+		//A new object each time, so the wait cannot end on an earlier push
+		Object value = new Integer(next++);
+		variable.set(value);
+		Object received;
+		//Yields so the dispatch threads can run even on a single core
+		while((received = updatable.received) != value){
+			Thread.yield();
+		}
+		return received;
+	}
+
+	protected static class ReceivingUpdatable implements DebuggerUpdatable{
+
+		protected volatile Object received;
+
+		@Override
+		public void update(Map<String, String> table){
+			//Not used
+		}
+
+		@Override
+		public void push(String key, String value){
+			//Variables are pushed through pushLazy
+		}
+
+		@Override
+		public void pushLazy(String key, LazyValue value){
+			received = value.getValue();
+		}
+
+		@Override
+		public void setExecutionState(String state){
+			//Not used
+		}
+
+	}
+}
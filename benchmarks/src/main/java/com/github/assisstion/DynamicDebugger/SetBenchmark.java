@@ -0,0 +1,77 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Throughput of DynamicVariableHolder.set with 0, 1 and N listeners, from one
+//thread and from several threads setting the same variable
+//Listeners are run by a dispatch executor that drops tasks when full, so
+//that the benchmark measures set() rather than the listeners
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetBenchmark{
+
+	@Param({"0", "1", "8"})
+	public int listeners;
+
+	protected DynamicVariableHolder<Integer> variable;
+	protected DispatchExecutor dispatcher;
+	protected Integer[] values = new Integer[1024];
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		dispatcher = new DispatchExecutor(DispatchExecutor.DEFAULT_THREADS,
+				DispatchExecutor.DEFAULT_QUEUE_CAPACITY,
+				DispatchExecutor.OverflowPolicy.DROP_NEWEST);
+		variable = new DynamicVariableHolder<Integer>("benchmark", 0);
+		variable.setDispatcher(dispatcher);
+		for(int i = 0; i < listeners; i++){
+			variable.addChangeListener((e) -> {
+				//Nothing to do
+			});
+		}
+		for(int i = 0; i < values.length; i++){
+			values[i] = i;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		dispatcher.shutdown();
+	}
+
+	@State(Scope.Thread)
+	public static class Counter{
+		public int next;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void set(Counter counter){
+		variable.set(values[counter.next++ & (values.length - 1)]);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void setContended(Counter counter){
+		variable.set(values[counter.next++ & (values.length - 1)]);
+	}
+}
@@ -0,0 +1,64 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Cost of DebuggerTableModel.getValueAt against the number of rows, for the
+//name and the value column, walking the rows the way a repaint does
+//Runs headless; the rows are filled in directly rather than through push,
+//which would apply them later on the event dispatch thread
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableModelBenchmark{
+
+	@Param({"100", "10000", "100000"})
+	public int rows;
+
+	protected DebuggerPanel panel;
+	protected DebuggerPanel.DebuggerTableModel model;
+	protected int row = 0;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		panel = new DebuggerPanel(null);
+		String[] keys = new String[rows];
+		for(int i = 0; i < rows; i++){
+			keys[i] = "variable" + i;
+		}
+		Arrays.sort(keys);
+		for(int i = 0; i < rows; i++){
+			panel.keys.add(keys[i]);
+			panel.rowValues.add(new LazyValue(i));
+		}
+		model = panel.model;
+	}
+
+	@Benchmark
+	public String name(){
+		row = row + 1 == rows ? 0 : row + 1;
+		return model.getValueAt(row, 0);
+	}
+
+	@Benchmark
+	public String value(){
+		row = row + 1 == rows ? 0 : row + 1;
+		return model.getValueAt(row, 1);
+	}
+}
@@ -0,0 +1,71 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Cost of one sampling tick (DebugUpdaterTask.run) against the number of
+//suppliers, when none, one percent or all of them changed since the last
+//tick; the Debugger is not started, so only the benchmark ticks it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark{
+
+	@Param({"10", "100", "1000", "10000"})
+	public int suppliers;
+
+	@Param({"0", "1", "100"})
+	public int percentChanged;
+
+	protected Debugger<Object> debugger;
+	protected Debugger<Object>.DebuggerUpdater.DebugUpdaterTask task;
+	protected int[] values;
+	protected int changing;
+	protected int tick = 0;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		debugger = new Debugger<Object>();
+		debugger.addUpdatable(new LatestValueSink());
+		values = new int[suppliers];
+		for(int i = 0; i < suppliers; i++){
+			int index = i;
+			debugger.attachSupplier(Debugger.keyedSupplier("supplier" + i,
+					() -> values[index]));
+		}
+		changing = suppliers * percentChanged / 100;
+		task = debugger.new DebuggerUpdater().new DebugUpdaterTask();
+		//The first tick reads and formats every supplier
+		task.run();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception{
+		debugger.close();
+	}
+
+	@Benchmark
+	public void tick(){
+		tick++;
+		for(int i = 0; i < changing; i++){
+			values[i] = tick;
+		}
+		task.run();
+	}
+}
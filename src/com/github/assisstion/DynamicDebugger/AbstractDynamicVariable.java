@@ -3,27 +3,51 @@ package com.github.assisstion.DynamicDebugger;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class AbstractDynamicVariable<T> implements DynamicVariable<T>{
 
+	//Changes fired by every variable, counted once per change whatever the
+	//number of listeners
+	protected static final LongAdder firedEvents = new LongAdder();
+
 	protected List<VariableListener<? super T>> listeners =
 			Collections.synchronizedList(new LinkedList<VariableListener<? super T>>());
+	//Run on the changing thread; see addInvalidationListener
+	protected Set<Runnable> invalidationListeners = new CopyOnWriteArraySet<Runnable>();
 	protected String name;
+	protected volatile boolean coalescing = false;
+	protected Object pendingLock = new Object();
+	protected boolean draining = false;
+	protected boolean pending = false;
+	protected T pendingOldValue;
+	protected T pendingNewValue;
+	protected long pendingTimeStamp;
+	protected Runnable drainRunnable = this.new DrainRunnable();
 
-	private static ExecutorService service = new ThreadPoolExecutor(4,
-			Integer.MAX_VALUE, 1000, TimeUnit.MILLISECONDS,
-			new ArrayBlockingQueue<Runnable>(1024));
+	protected volatile DispatchExecutor dispatcher;
 
 	public AbstractDynamicVariable(String name){
 		this.name = name == null ? toString() : name;
 	}
 
 	protected static ExecutorService getExecutor(){
-		return service;
+		return DispatchExecutor.getDefault().getExecutorService();
+	}
+
+	//Listeners are notified on the default DispatchExecutor unless
+	//the variable is given its own
+	public DispatchExecutor getDispatcher(){
+		DispatchExecutor de = dispatcher;
+		return de == null ? DispatchExecutor.getDefault() : de;
+	}
+
+	public void setDispatcher(DispatchExecutor dispatcher){
+		this.dispatcher = dispatcher;
 	}
 
 	@Override
@@ -41,16 +65,178 @@ public abstract class AbstractDynamicVariable<T> implements DynamicVariable<T>{
 		listeners.clear();
 	}
 
+	//Invalidation listeners are run on the thread that changes the variable,
+	//before any change listener is notified, and are given no event; they
+	//must be quick, and are meant for marking things that depend on the
+	//variable as stale (see DerivedDynamicVariable)
+	public boolean addInvalidationListener(Runnable listener){
+		return invalidationListeners.add(listener);
+	}
+
+	public boolean removeInvalidationListener(Runnable listener){
+		return invalidationListeners.remove(listener);
+	}
+
+	//If coalescing, changes made while the listeners are still being notified
+	//are merged, so a burst of changes is delivered as a single event with
+	//the first old value and the last new value
+	public void setCoalescing(boolean coalescing){
+		this.coalescing = coalescing;
+	}
+
+	public boolean isCoalescing(){
+		return coalescing;
+	}
+
+	public static long getFiredEventCount(){
+		return firedEvents.sum();
+	}
+
 	protected void fireChangeListeners(T oldValue, T newValue, long timeStamp){
+		changed();
+		if(coalescing){
+			if(listeners.isEmpty()){
+				return;
+			}
+			synchronized(pendingLock){
+				if(!pending){
+					pending = true;
+					pendingOldValue = oldValue;
+				}
+				pendingNewValue = newValue;
+				pendingTimeStamp = timeStamp;
+			}
+			scheduleDrain();
+			return;
+		}
 		synchronized(listeners){
-			ExecutorService es = getExecutor();
+			DispatchExecutor de = getDispatcher();
 			for(VariableListener<? super T> vl : listeners){
-				es.execute(this.new ListenerExecutionRunnable(vl,
+				de.dispatch(this, vl, this.new ListenerExecutionRunnable(vl,
 						oldValue, newValue, timeStamp));
 			}
 		}
 	}
 
+	//Counts the change and runs the invalidation listeners; called once for
+	//every change, before any change listener is notified
+	//The listeners run as one batch, so no derived variable is propagated
+	//after some of them have run but not the others
+	protected void changed(){
+		firedEvents.increment();
+		if(!invalidationListeners.isEmpty()){
+			DerivedDynamicVariable.propagation.beginBatch();
+			try{
+				for(Runnable listener : invalidationListeners){
+					listener.run();
+				}
+			}
+			finally{
+				DerivedDynamicVariable.propagation.endBatch();
+			}
+		}
+	}
+
+	//At most one drain task per variable is scheduled at a time
+	//If the queue has no room for the drain task, the dispatcher runs it
+	//later anyway, so the last change is never left undelivered
+	protected void scheduleDrain(){
+		synchronized(pendingLock){
+			if(draining){
+				return;
+			}
+			draining = true;
+		}
+		try{
+			getDispatcher().execute(drainRunnable);
+		}
+		catch(RejectedExecutionException e){
+			drainDropped();
+			throw e;
+		}
+	}
+
+	protected void drainDropped(){
+		synchronized(pendingLock){
+			draining = false;
+		}
+	}
+
+	//Called while holding pendingLock
+	protected boolean hasPendingChanges(){
+		return pending;
+	}
+
+	//The new value to deliver for a coalesced burst; subclasses that
+	//store their value may return it directly so that the latest value is
+	//delivered even if changes were fired out of order
+	protected T latestValue(T pendingNewValue){
+		return pendingNewValue;
+	}
+
+	protected void drainPendingChanges(){
+		T oldValue;
+		T newValue;
+		long timeStamp;
+		synchronized(pendingLock){
+			if(!pending){
+				return;
+			}
+			pending = false;
+			oldValue = pendingOldValue;
+			newValue = latestValue(pendingNewValue);
+			timeStamp = pendingTimeStamp;
+			pendingOldValue = null;
+			pendingNewValue = null;
+		}
+		VariableChangeEvent<T> e = new VariableChangeEvent<T>(
+				oldValue, newValue, timeStamp, this);
+		for(Object vl : listeners.toArray()){
+			@SuppressWarnings("unchecked")
+			VariableListener<? super T> listener = (VariableListener<? super T>) vl;
+			listener.changeOccured(e);
+		}
+	}
+
+	protected class DrainRunnable implements DispatchExecutor.DroppableTask{
+
+		@Override
+		public void run(){
+			boolean finished = false;
+			try{
+				while(true){
+					drainPendingChanges();
+					synchronized(pendingLock){
+						if(!hasPendingChanges()){
+							draining = false;
+							finished = true;
+							return;
+						}
+					}
+				}
+			}
+			finally{
+				//A listener threw; changes made since are drained by a new task
+				if(!finished){
+					boolean more;
+					synchronized(pendingLock){
+						draining = false;
+						more = hasPendingChanges();
+					}
+					if(more){
+						scheduleDrain();
+					}
+				}
+			}
+		}
+
+		@Override
+		public boolean dropped(){
+			return true;
+		}
+
+	}
+
 	protected class ListenerExecutionRunnable implements Runnable{
 
 		protected VariableListener<? super T> vl;
@@ -0,0 +1,124 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+//A named place that pauses its Debugger (see Debugger.breakpoint)
+//Whether to pause is decided without locking: a disabled breakpoint, a false
+//condition or a remaining skip returns at once, so breakpoints can be left
+//in hot loops; only a breakpoint that does pause takes the Debugger's lock
+//Every call is counted as a hit, and the Debugger shows the hits under
+//PREFIX followed by the name
+public class Breakpoint{
+
+	public static final String PREFIX = "breakpoint.";
+
+	private static final AtomicIntegerFieldUpdater<Breakpoint> SKIPS =
+			AtomicIntegerFieldUpdater.newUpdater(Breakpoint.class, "skips");
+
+	protected Debugger<?> debugger;
+	protected String name;
+	protected volatile boolean enabled = true;
+	protected volatile int skips = 0;
+	protected volatile BooleanSupplier condition;
+	protected LongAdder hits = new LongAdder();
+	//Attached to the Debugger to show the hits
+	protected KeyedSupplier<String> supplier;
+
+	protected Breakpoint(Debugger<?> debugger, String name){
+		this.debugger = debugger;
+		this.name = name;
+		supplier = KeyedSupplier.of(PREFIX + name, this::toString);
+	}
+
+	public String getName(){
+		return name;
+	}
+
+	public boolean pause(){
+		return pause(true);
+	}
+
+	public boolean pause(boolean hold){
+		return pause(hold, hold);
+	}
+
+	//False if the pause has been skipped, true otherwise; see Debugger.pause
+	public boolean pause(boolean hold, boolean cache){
+		hits.increment();
+		if(!enabled){
+			return false;
+		}
+		BooleanSupplier c = condition;
+		if(c != null && !c.getAsBoolean()){
+			return false;
+		}
+		//A pause the Debugger would skip anyway does not use up a skip
+		if(!debugger.isBreakpointsEnabled() || debugger.getSkipCount() < 0){
+			return false;
+		}
+		return !trySkip() && debugger.pause(hold, cache, this);
+	}
+
+	//Pauses only if the predicate accepts the value, as well as the
+	//breakpoint's own condition
+	public <V> boolean pauseIf(V value, Predicate<? super V> predicate){
+		if(!predicate.test(value)){
+			hits.increment();
+			return false;
+		}
+		return pause();
+	}
+
+	protected boolean trySkip(){
+		int s;
+		while((s = skips) > 0){
+			if(SKIPS.compareAndSet(this, s, s - 1)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void setEnabled(boolean enabled){
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled(){
+		return enabled;
+	}
+
+	//The next count pauses of this breakpoint are skipped
+	public void setSkipCount(int count){
+		skips = Math.max(0, count);
+	}
+
+	public int getSkipCount(){
+		return skips;
+	}
+
+	//Only pauses while the condition is true; null always pauses
+	//The condition is called on the pausing thread without any lock held
+	public void setCondition(BooleanSupplier condition){
+		this.condition = condition;
+	}
+
+	public BooleanSupplier getCondition(){
+		return condition;
+	}
+
+	public long getHitCount(){
+		return hits.sum();
+	}
+
+	public void resetHitCount(){
+		hits.reset();
+	}
+
+	@Override
+	public String toString(){
+		return enabled ? "hits=" + hits.sum() : "hits=" + hits.sum() + ", disabled";
+	}
+}
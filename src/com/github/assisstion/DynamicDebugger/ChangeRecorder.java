@@ -0,0 +1,444 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Records change events into memory-mapped segment files (see RecordFormat)
+//Listeners only copy the event into a preallocated ring buffer, which a single
+//writer thread drains into the current segment, so recording a primitive
+//change does not allocate; other values are converted to Strings by the
+//writer thread
+//If the ring buffer is full, the event is dropped (and counted) rather than
+//blocking the application
+//The writer thread parks while the buffer is empty and is unparked by the
+//next event
+//If writing fails, recording stops: later events are dropped, and the error
+//is kept (see getFailure) and thrown by close()
+//Events offered once close() has written out the rest are counted as dropped
+//The name of each variable is written to the dictionary by the writer thread
+//too, before its first event
+//As a DebuggerUpdatable, it records supplier values by key; pushes are
+//ignored, since variables are recorded (with their types) by listening to them
+public class ChangeRecorder implements VariableListener<Object>, IntVariableListener,
+LongVariableListener, DoubleVariableListener, DebuggerUpdatable, Closeable{
+
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	public static final int DEFAULT_BUFFER_CAPACITY = 1 << 16;
+
+	protected static final long CLOSED = Long.MIN_VALUE;
+
+	protected File directory;
+	protected String prefix;
+	protected int segmentSize;
+
+	//Written under the lock of ids
+	protected Map<Object, Integer> ids = new ConcurrentHashMap<Object, Integer>();
+	//Guarded by ids; name to id of variables that were released
+	protected Map<String, Integer> released = new HashMap<String, Integer>();
+	protected AtomicInteger nextId = new AtomicInteger(1);
+	//Dictionary lines not yet written; only the writer thread writes names
+	protected Queue<String> pendingNames = new ConcurrentLinkedQueue<String>();
+	protected Writer names;
+
+	//Ring buffer; slot i holds the event with sequence s if published[i] == s + 1
+	protected int mask;
+	protected int[] eventIds;
+	protected byte[] types;
+	protected long[] timeStamps;
+	protected long[] bits;
+	protected Object[] objects;
+	protected AtomicLongArray published;
+	//CLOSED once the writer thread has finished
+	protected AtomicLong head = new AtomicLong();
+	protected volatile long tail = 0;
+	protected LongAdder dropped = new LongAdder();
+
+	protected Thread writer;
+	protected volatile boolean running = true;
+	//Set by the writer thread before it parks
+	protected volatile boolean waiting = false;
+	protected volatile IOException failure;
+	protected int segmentIndex = -1;
+	protected RandomAccessFile segmentFile;
+	protected MappedByteBuffer segment;
+	protected AtomicLong recorded = new AtomicLong();
+
+	public ChangeRecorder(File directory, String prefix) throws IOException{
+		this(directory, prefix, DEFAULT_SEGMENT_SIZE, DEFAULT_BUFFER_CAPACITY);
+	}
+
+	//bufferCapacity is rounded up to a power of two
+	public ChangeRecorder(File directory, String prefix, int segmentSize,
+			int bufferCapacity) throws IOException{
+		if(segmentSize < RecordFormat.HEADER_SIZE + RecordFormat.RECORD_HEADER_SIZE + 8){
+			throw new IllegalArgumentException("segmentSize is too small");
+		}
+		if(bufferCapacity < 1 || bufferCapacity > 1 << 30){
+			throw new IllegalArgumentException("bufferCapacity is out of range");
+		}
+		this.directory = directory;
+		this.prefix = prefix;
+		this.segmentSize = segmentSize;
+		directory.mkdirs();
+		int capacity = Integer.highestOneBit(bufferCapacity);
+		if(capacity < bufferCapacity){
+			capacity <<= 1;
+		}
+		mask = capacity - 1;
+		eventIds = new int[capacity];
+		types = new byte[capacity];
+		timeStamps = new long[capacity];
+		bits = new long[capacity];
+		objects = new Object[capacity];
+		published = new AtomicLongArray(capacity);
+		names = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+				RecordFormat.namesFile(directory, prefix)), StandardCharsets.UTF_8));
+		nextSegment();
+		writer = new Thread(this::writeLoop, "DynamicDebugger-recorder-" + prefix);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void changeOccured(VariableChangeEvent<? extends Object> e){
+		int id = idOf(e.getSource(), e.getSource().getName());
+		Object value = e.getNewValue();
+		if(value instanceof Integer || value instanceof Short || value instanceof Byte){
+			offer(id, RecordFormat.TYPE_INT, e.getTimeStamp(),
+					((Number) value).longValue(), null);
+		}
+		else if(value instanceof Long){
+			offer(id, RecordFormat.TYPE_LONG, e.getTimeStamp(), (Long) value, null);
+		}
+		else if(value instanceof Double || value instanceof Float){
+			offer(id, RecordFormat.TYPE_DOUBLE, e.getTimeStamp(),
+					Double.doubleToRawLongBits(((Number) value).doubleValue()), null);
+		}
+		else if(value instanceof Boolean){
+			offer(id, RecordFormat.TYPE_BOOLEAN, e.getTimeStamp(),
+					(Boolean) value ? 1 : 0, null);
+		}
+		else if(value == null){
+			offer(id, RecordFormat.TYPE_NULL, e.getTimeStamp(), 0, null);
+		}
+		else{
+			offer(id, RecordFormat.TYPE_STRING, e.getTimeStamp(), 0, value);
+		}
+	}
+
+	@Override
+	public void changeOccured(IntVariableChangeEvent e){
+		offer(idOf(e.getSource(), e.getSource().getName()), RecordFormat.TYPE_INT,
+				e.getTimeStamp(), e.getNewValue(), null);
+	}
+
+	@Override
+	public void changeOccured(LongVariableChangeEvent e){
+		offer(idOf(e.getSource(), e.getSource().getName()), RecordFormat.TYPE_LONG,
+				e.getTimeStamp(), e.getNewValue(), null);
+	}
+
+	@Override
+	public void changeOccured(DoubleVariableChangeEvent e){
+		offer(idOf(e.getSource(), e.getSource().getName()), RecordFormat.TYPE_DOUBLE,
+				e.getTimeStamp(), Double.doubleToRawLongBits(e.getNewValue()), null);
+	}
+
+	@Override
+	public void update(Map<String, String> table){
+		long time = System.currentTimeMillis();
+		for(Map.Entry<String, String> entry : table.entrySet()){
+			offer(idOf(entry.getKey(), entry.getKey()), RecordFormat.TYPE_STRING,
+					time, 0, entry.getValue());
+		}
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	//Only changes are recorded; removed suppliers are recorded as null
+	@Override
+	public void update(SupplierDelta delta){
+		long time = delta.getTimeStamp();
+		for(String key : delta.getRemoved()){
+			offer(idOf(key, key), RecordFormat.TYPE_NULL, time, 0, null);
+		}
+		for(Map.Entry<String, String> entry : delta.getAdded().entrySet()){
+			offer(idOf(entry.getKey(), entry.getKey()), RecordFormat.TYPE_STRING,
+					time, 0, entry.getValue());
+		}
+		for(Map.Entry<String, String> entry : delta.getChanged().entrySet()){
+			offer(idOf(entry.getKey(), entry.getKey()), RecordFormat.TYPE_STRING,
+					time, 0, entry.getValue());
+		}
+	}
+
+	@Override
+	public void push(String key, String value){
+		//Variables are recorded by listening to them directly
+	}
+
+	@Override
+	public void setExecutionState(String state){
+		offer(RecordFormat.STATE_ID, RecordFormat.TYPE_STRING,
+				System.currentTimeMillis(), 0, state);
+	}
+
+	//Variables are identified by identity, supplier keys by name
+	protected int idOf(Object source, String name){
+		Integer id = ids.get(source);
+		if(id != null){
+			return id;
+		}
+		synchronized(ids){
+			id = ids.get(source);
+			if(id == null){
+				id = released.remove(name);
+				if(id == null){
+					id = nextId.getAndIncrement();
+					pendingNames.add(id + "\t" + RecordFormat.escapeName(String.valueOf(name)) + "\n");
+				}
+				ids.put(source, id);
+			}
+			return id;
+		}
+	}
+
+	//Forgets a variable that is no longer recorded (e.g. unattached from the
+	//Debugger), so that the recorder does not keep it alive; a variable of
+	//the same name recorded later gets its id
+	public void release(DynamicVariable<?> variable){
+		synchronized(ids){
+			Integer id = ids.remove(variable);
+			if(id != null && variable.getName() != null){
+				released.put(variable.getName(), id);
+			}
+		}
+	}
+
+	protected void offer(int id, byte type, long timeStamp, long value, Object object){
+		long sequence;
+		do{
+			sequence = head.get();
+			if(sequence == CLOSED || failure != null || sequence - tail > mask){
+				dropped.increment();
+				return;
+			}
+		}
+		while(!head.compareAndSet(sequence, sequence + 1));
+		int slot = (int) (sequence & mask);
+		eventIds[slot] = id;
+		types[slot] = type;
+		timeStamps[slot] = timeStamp;
+		bits[slot] = value;
+		objects[slot] = object;
+		published.lazySet(slot, sequence + 1);
+		if(waiting){
+			LockSupport.unpark(writer);
+		}
+	}
+
+	protected void writeLoop(){
+		long next = tail;
+		while(true){
+			int slot = (int) (next & mask);
+			if(published.get(slot) != next + 1){
+				if(next < head.get()){
+					//Claimed but not yet published
+					Thread.yield();
+				}
+				else if(!running){
+					//Every event claimed so far has been written; later
+					//offers see CLOSED and count themselves as dropped
+					if(head.compareAndSet(next, CLOSED)){
+						break;
+					}
+				}
+				else{
+					awaitOffer(next);
+				}
+				continue;
+			}
+			if(failure == null){
+				try{
+					writeNames();
+					write(eventIds[slot], types[slot], timeStamps[slot], bits[slot],
+							objects[slot]);
+				}
+				catch(IOException e){
+					failed(e);
+				}
+				catch(RuntimeException e){
+					failed(new IOException("Failed to record an event", e));
+				}
+			}
+			if(failure != null){
+				//Including the event that failed
+				dropped.increment();
+			}
+			objects[slot] = null;
+			next++;
+			tail = next;
+		}
+		if(failure == null){
+			try{
+				writeNames();
+			}
+			catch(IOException e){
+				failed(e);
+			}
+		}
+	}
+
+	//The names of new ids are queued before their first event, so they are
+	//written before it
+	protected void writeNames() throws IOException{
+		String line = pendingNames.poll();
+		if(line == null){
+			return;
+		}
+		do{
+			names.write(line);
+		}
+		while((line = pendingNames.poll()) != null);
+		names.flush();
+	}
+
+	//Parks until an event is offered after the sequence, or close is called
+	protected void awaitOffer(long sequence){
+		waiting = true;
+		//offer reads waiting after claiming its sequence, so either the claim
+		//is seen here or the event unparks the writer
+		if(running && head.get() == sequence){
+			LockSupport.park(this);
+		}
+		waiting = false;
+	}
+
+	protected void write(int id, byte type, long timeStamp, long value, Object object)
+			throws IOException{
+		byte[] text = null;
+		int size = RecordFormat.RECORD_HEADER_SIZE;
+		if(type == RecordFormat.TYPE_STRING){
+			text = String.valueOf(object).getBytes(StandardCharsets.UTF_8);
+			int max = segmentSize - RecordFormat.HEADER_SIZE - size - 4;
+			if(text.length > max){
+				byte[] truncated = new byte[max];
+				System.arraycopy(text, 0, truncated, 0, max);
+				text = truncated;
+			}
+			size += 4 + text.length;
+		}
+		else if(type != RecordFormat.TYPE_NULL){
+			size += 8;
+		}
+		if(segment.remaining() < size){
+			nextSegment();
+		}
+		segment.putInt(id);
+		segment.put(type);
+		segment.putLong(timeStamp);
+		if(text != null){
+			segment.putInt(text.length);
+			segment.put(text);
+		}
+		else if(type != RecordFormat.TYPE_NULL){
+			segment.putLong(value);
+		}
+		recorded.incrementAndGet();
+	}
+
+	protected void nextSegment() throws IOException{
+		closeSegment();
+		segmentIndex++;
+		segmentFile = new RandomAccessFile(RecordFormat.segmentFile(
+				directory, prefix, segmentIndex), "rw");
+		segment = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		segment.putInt(RecordFormat.MAGIC);
+		segment.putInt(RecordFormat.VERSION);
+	}
+
+	protected void closeSegment() throws IOException{
+		if(segment != null){
+			if(segment.remaining() >= 4){
+				segment.putInt(RecordFormat.END_ID);
+			}
+			segment.force();
+			segmentFile.close();
+			segment = null;
+		}
+	}
+
+	public long getRecordedCount(){
+		return recorded.get();
+	}
+
+	public long getDroppedCount(){
+		return dropped.sum();
+	}
+
+	//The error that stopped recording, or null if there was none
+	public IOException getFailure(){
+		return failure;
+	}
+
+	//Only the first error is kept
+	protected synchronized void failed(IOException e){
+		if(failure == null){
+			failure = e;
+		}
+	}
+
+	public File getDirectory(){
+		return directory;
+	}
+
+	public String getPrefix(){
+		return prefix;
+	}
+
+	//Writes out everything recorded so far and closes the files
+	//Throws the error that stopped recording, if any
+	@Override
+	public void close() throws IOException{
+		if(!running){
+			return;
+		}
+		running = false;
+		LockSupport.unpark(writer);
+		try{
+			writer.join();
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		names.close();
+		closeSegment();
+		if(failure != null){
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package com.github.assisstion.DynamicDebugger;
+
+//What a DebuggerPanel needs of the Debugger it shows, whether it is local
+//or reached through a RemoteDebuggerClient
+interface DebugInformationReceiver{
+	void resumeExecution(int count);
+	int getSkipCount();
+}
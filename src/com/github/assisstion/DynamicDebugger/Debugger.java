@@ -1,6 +1,5 @@
 package com.github.assisstion.DynamicDebugger;
 
-import java.awt.BorderLayout;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
@@ -17,28 +16,62 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
-import javax.swing.JFrame;
 import javax.swing.JPanel;
 
 public class Debugger<T> implements Closeable, DebugInformationReceiver, VariableListener<T>{
 
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<Debugger> SKIPS =
+			AtomicIntegerFieldUpdater.newUpdater(Debugger.class, "skips");
+
 	protected Object doneLock = new Object();
 	protected ReadWriteLock variableLock = new ReentrantReadWriteLock();
 	protected Set<Supplier<? extends T>> suppliers;
+	//In ticks; suppliers that are not in this map are sampled every tick
+	protected Map<Supplier<? extends T>, Integer> supplierIntervals;
 	protected Set<DynamicVariable<? extends T>> dynamicVariables;
+	//Sampled every tick on the timer thread
+	protected Set<SampledDynamicVariable<?>> sampledVariables =
+			new CopyOnWriteArraySet<SampledDynamicVariable<?>>();
 	protected long delay;
 	protected boolean done = false;
 	protected ReadWriteLock resourceLock = new ReentrantReadWriteLock();
 	protected Set<DebuggerUpdatable> updatables;
+	//The changes not yet delivered to each updatable that accepts deltas
+	protected Map<DebuggerUpdatable, SupplierDeltaBuilder> deltas =
+			new ConcurrentHashMap<DebuggerUpdatable, SupplierDeltaBuilder>();
 	protected boolean init = false;
-	protected int lastHash = -1;
-	protected Map<DynamicVariable<? extends T>, T> holdCache;
+	protected SupplierSampler sampler = new SupplierSampler();
+	//Incremented (under the variable write lock) whenever suppliers changes
+	protected int supplierModCount = 0;
+	//Changes held by a pause with cache
+	protected volatile PauseJournal journal = new PauseJournal();
+	protected volatile DispatchExecutor dispatcher;
+	protected Map<DynamicVariable<? extends T>, VariableHistory<?>> histories;
+	protected Map<DynamicVariable<? extends T>, ValueFormat> formats =
+			new ConcurrentHashMap<DynamicVariable<? extends T>, ValueFormat>();
+	//One instance of each key pushed, used as the dispatch target, since
+	//dispatches compare targets by identity
+	protected Map<String, String> keyTokens = new ConcurrentHashMap<String, String>();
+	protected Set<ChangeRecorder> recorders = new HashSet<ChangeRecorder>();
+	//Guarded by itself; cancelled on close
+	protected List<SubscriptionHub.Watch> hubWatches = new ArrayList<SubscriptionHub.Watch>();
+	protected PrimitiveVariableListener primitiveListener = this.new PrimitiveVariableListener();
+	protected DebuggerMetrics metrics = new DebuggerMetrics(this);
+	//Guarded by variableLock; attached by enableMetrics
+	protected List<KeyedSupplier<Object>> metricSuppliers;
+	//Only accessed on the timer thread
+	protected long metricsTick = 0;
 
 	public Debugger(){
 		this(100);
@@ -46,10 +79,16 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	//In milliseconds
 	public Debugger(long updateDelay){
+		if(updateDelay < 1){
+			throw new IllegalArgumentException("updateDelay must be positive");
+		}
 		suppliers = new HashSet<Supplier<? extends T>>();
+		supplierIntervals = new HashMap<Supplier<? extends T>, Integer>();
 		dynamicVariables = new HashSet<DynamicVariable<? extends T>>();
-		updatables = Collections.synchronizedSet(new HashSet<DebuggerUpdatable>());
-		holdCache = Collections.synchronizedMap(new HashMap<DynamicVariable<? extends T>, T>());
+		//Copy on write, so that tasks can be dispatched to the updatables
+		//without holding a lock that the dispatch threads may need
+		updatables = new CopyOnWriteArraySet<DebuggerUpdatable>();
+		histories = new HashMap<DynamicVariable<? extends T>, VariableHistory<?>>();
 		delay = updateDelay;
 	}
 
@@ -63,6 +102,8 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 	 * e.g. a value of:
 	 * %$counter=3
 	 * would give the key of "counter" and the value of "3"
+	 * A KeyedSupplier (see keyedSupplier) is shown under its key without any
+	 * parsing, and should be preferred; the syntax is kept for compatibility.
 	 */
 	public boolean attachSupplier(Supplier<? extends T> supplier){
 		Lock lock = variableLock.writeLock();
@@ -70,6 +111,39 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		boolean b;
 		try{
 			b = suppliers.add(supplier);
+			supplierModCount++;
+		}
+		finally{
+			lock.unlock();
+		}
+		return b;
+	}
+
+	//The supplier is sampled about every interval milliseconds, rounded to
+	//a multiple of the update delay; if the supplier is already attached,
+	//only its interval is changed
+	public boolean attachSupplier(Supplier<? extends T> supplier, long interval){
+		return attachSupplierEveryTicks(supplier,
+				(int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.round((double) interval / delay))));
+	}
+
+	public boolean attachSupplier(Supplier<? extends T> supplier, SamplingPriority priority){
+		return attachSupplierEveryTicks(supplier, priority.getTicks());
+	}
+
+	//The supplier is sampled every ticks updates; if the supplier is already
+	//attached, only its interval is changed
+	public boolean attachSupplierEveryTicks(Supplier<? extends T> supplier, int ticks){
+		if(ticks < 1){
+			throw new IllegalArgumentException("ticks must be positive");
+		}
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		boolean b;
+		try{
+			b = suppliers.add(supplier);
+			supplierIntervals.put(supplier, ticks);
+			supplierModCount++;
 		}
 		finally{
 			lock.unlock();
@@ -77,8 +151,31 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		return b;
 	}
 
+	//If adaptive, suppliers that do not change are sampled less and less
+	//often (down to SupplierSampler.MAX_BACKOFF times their interval),
+	//and go back to their interval as soon as they change; suppliers that
+	//keep changing are sampled more and more often, up to every update
+	public void setAdaptiveSampling(boolean adaptive){
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		try{
+			sampler.setAdaptive(adaptive);
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	public boolean isAdaptiveSampling(){
+		return sampler.isAdaptive();
+	}
+
 	public static Supplier<String> formatSupplier(Supplier<?> key, Supplier<?> value){
-		return () -> "%$" + key.get().toString() + "=" + value.get().toString();
+		return () -> SupplierPattern.PREFIX + key.get().toString() + "=" + value.get().toString();
+	}
+
+	public static <T> KeyedSupplier<T> keyedSupplier(String key, Supplier<? extends T> value){
+		return KeyedSupplier.of(key, value);
 	}
 
 	public boolean attach(DynamicVariable<? extends T> dynamicVariable){
@@ -88,7 +185,15 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		try{
 			b = dynamicVariables.add(dynamicVariable);
 			if(b){
-				dynamicVariable.addChangeListener(this);
+				addListener(dynamicVariable);
+				if(dynamicVariable instanceof SampledDynamicVariable){
+					SampledDynamicVariable<?> sampled = (SampledDynamicVariable<?>) dynamicVariable;
+					sampled.addSampler(this);
+					sampledVariables.add(sampled);
+				}
+				for(ChangeRecorder recorder : recorders){
+					addRecorderListener(dynamicVariable, recorder);
+				}
 				this.fireUpdate(dynamicVariable, dynamicVariable.get());
 			}
 		}
@@ -98,12 +203,321 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		return b;
 	}
 
+	//Attaches every variable published to the hub under a name matching the
+	//pattern (see SubscriptionHub.subscribe), including ones published
+	//later, and unattaches them when they are unpublished or the watch is
+	//cancelled; meanwhile they are attached like any other variable, so
+	//unattach, clear, enableHistory and recorders apply to them
+	//The hub holds variables of any type; a variable is only attached if its
+	//value when it is published is null or of the type, and must keep to it
+	public SubscriptionHub.Watch subscribe(SubscriptionHub hub, String pattern,
+			Class<? extends T> type){
+		Objects.requireNonNull(type);
+		SubscriptionHub.Watch watch = hub.watch(pattern, this.new HubAttachment(type));
+		synchronized(hubWatches){
+			hubWatches.add(watch);
+		}
+		return watch;
+	}
+
+	//Attaches the variables of a hub for subscribe
+	protected class HubAttachment implements SubscriptionHub.PublicationListener{
+
+		protected Class<? extends T> type;
+		//The variables attached by this, as opposed to attached directly
+		protected Set<DynamicVariable<?>> attached = ConcurrentHashMap.newKeySet();
+
+		public HubAttachment(Class<? extends T> type){
+			this.type = type;
+		}
+
+		@Override
+		public void published(DynamicVariable<?> variable){
+			Object value = variable.get();
+			if(value != null && !type.isInstance(value)){
+				return;
+			}
+			if(attach(cast(variable))){
+				attached.add(variable);
+			}
+		}
+
+		@Override
+		public void unpublished(DynamicVariable<?> variable){
+			if(attached.remove(variable)){
+				unattach(cast(variable));
+			}
+		}
+
+		//Checked against the type when published
+		@SuppressWarnings("unchecked")
+		protected DynamicVariable<? extends T> cast(DynamicVariable<?> variable){
+			return (DynamicVariable<? extends T>) variable;
+		}
+
+	}
+
+	//Primitive variables are listened to without boxing their values
+	protected void addListener(DynamicVariable<? extends T> dynamicVariable){
+		if(dynamicVariable instanceof IntDynamicVariable){
+			((IntDynamicVariable) dynamicVariable).addIntChangeListener(primitiveListener);
+		}
+		else if(dynamicVariable instanceof LongDynamicVariable){
+			((LongDynamicVariable) dynamicVariable).addLongChangeListener(primitiveListener);
+		}
+		else if(dynamicVariable instanceof DoubleDynamicVariable){
+			((DoubleDynamicVariable) dynamicVariable).addDoubleChangeListener(primitiveListener);
+		}
+		else{
+			dynamicVariable.addChangeListener(this);
+		}
+	}
+
+	protected void removeListener(DynamicVariable<? extends T> dynamicVariable){
+		if(dynamicVariable instanceof IntDynamicVariable){
+			((IntDynamicVariable) dynamicVariable).removeIntChangeListener(primitiveListener);
+		}
+		else if(dynamicVariable instanceof LongDynamicVariable){
+			((LongDynamicVariable) dynamicVariable).removeLongChangeListener(primitiveListener);
+		}
+		else if(dynamicVariable instanceof DoubleDynamicVariable){
+			((DoubleDynamicVariable) dynamicVariable).removeDoubleChangeListener(primitiveListener);
+		}
+		else{
+			dynamicVariable.removeChangeListener(this);
+		}
+	}
+
+	//Updatables are notified on the default DispatchExecutor unless
+	//the Debugger is given its own
+	public DispatchExecutor getDispatcher(){
+		DispatchExecutor de = dispatcher;
+		return de == null ? DispatchExecutor.getDefault() : de;
+	}
+
+	public void setDispatcher(DispatchExecutor dispatcher){
+		this.dispatcher = dispatcher;
+	}
+
+	//Always kept, whether or not they are shown
+	public DebuggerMetrics getMetrics(){
+		return metrics;
+	}
+
+	//Shows the Debugger's metrics as suppliers (named DebuggerMetrics.PREFIX
+	//followed by the metric) sampled about every interval milliseconds, and
+	//times every supplier's get()
+	public void enableMetrics(long interval){
+		int ticks = (int) Math.max(1, Math.round((double) interval / delay));
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		try{
+			if(metricSuppliers == null){
+				metricSuppliers = metrics.suppliers();
+			}
+			for(KeyedSupplier<Object> supplier : metricSuppliers){
+				Supplier<? extends T> s = castSupplier(supplier);
+				suppliers.add(s);
+				supplierIntervals.put(s, ticks);
+			}
+			sampler.setTiming(true);
+			supplierModCount++;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	public void enableMetrics(){
+		enableMetrics(1000);
+	}
+
+	public void disableMetrics(){
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		try{
+			if(metricSuppliers == null){
+				return;
+			}
+			for(KeyedSupplier<Object> supplier : metricSuppliers){
+				Supplier<? extends T> s = castSupplier(supplier);
+				suppliers.remove(s);
+				supplierIntervals.remove(s);
+			}
+			metricSuppliers = null;
+			sampler.setTiming(false);
+			metrics.setSupplierTimes(Collections.<String, Long>emptyMap());
+			supplierModCount++;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	//Suppliers are only ever read as Objects by the sampler
+	@SuppressWarnings("unchecked")
+	protected Supplier<? extends T> castSupplier(Supplier<?> supplier){
+		return (Supplier<? extends T>) supplier;
+	}
+
+	//Records every change of the attached variables (including ones attached
+	//later), every supplier snapshot and every execution state change
+	public boolean addRecorder(ChangeRecorder recorder){
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		try{
+			if(!recorders.add(recorder)){
+				return false;
+			}
+			for(DynamicVariable<? extends T> dv : dynamicVariables){
+				addRecorderListener(dv, recorder);
+			}
+			addUpdatable(recorder);
+			return true;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	public boolean removeRecorder(ChangeRecorder recorder){
+		Lock lock = variableLock.writeLock();
+		lock.lock();
+		try{
+			if(!recorders.remove(recorder)){
+				return false;
+			}
+			for(DynamicVariable<? extends T> dv : dynamicVariables){
+				removeRecorderListener(dv, recorder);
+			}
+			removeUpdatable(recorder);
+			return true;
+		}
+		finally{
+			lock.unlock();
+		}
+	}
+
+	protected void addRecorderListener(DynamicVariable<? extends T> dynamicVariable,
+			ChangeRecorder recorder){
+		if(dynamicVariable instanceof IntDynamicVariable){
+			((IntDynamicVariable) dynamicVariable).addIntChangeListener(recorder);
+		}
+		else if(dynamicVariable instanceof LongDynamicVariable){
+			((LongDynamicVariable) dynamicVariable).addLongChangeListener(recorder);
+		}
+		else if(dynamicVariable instanceof DoubleDynamicVariable){
+			((DoubleDynamicVariable) dynamicVariable).addDoubleChangeListener(recorder);
+		}
+		else{
+			dynamicVariable.addChangeListener(recorder);
+		}
+	}
+
+	protected void removeRecorderListener(DynamicVariable<? extends T> dynamicVariable,
+			ChangeRecorder recorder){
+		if(dynamicVariable instanceof IntDynamicVariable){
+			((IntDynamicVariable) dynamicVariable).removeIntChangeListener(recorder);
+		}
+		else if(dynamicVariable instanceof LongDynamicVariable){
+			((LongDynamicVariable) dynamicVariable).removeLongChangeListener(recorder);
+		}
+		else if(dynamicVariable instanceof DoubleDynamicVariable){
+			((DoubleDynamicVariable) dynamicVariable).removeDoubleChangeListener(recorder);
+		}
+		else{
+			dynamicVariable.removeChangeListener(recorder);
+		}
+		recorder.release(dynamicVariable);
+	}
+
+	public VariableHistory<?> enableHistory(DynamicVariable<? extends T> dynamicVariable,
+			int capacity){
+		return enableHistory(dynamicVariable, capacity, false);
+	}
+
+	//Records the last capacity changes of the variable; int, long and
+	//double variables are stored as primitives (off-heap if offHeap)
+	//If a history was already enabled for the variable, it is returned instead
+	public VariableHistory<?> enableHistory(DynamicVariable<? extends T> dynamicVariable,
+			int capacity, boolean offHeap){
+		synchronized(histories){
+			VariableHistory<?> history = histories.get(dynamicVariable);
+			if(history != null){
+				return history;
+			}
+			if(dynamicVariable instanceof IntDynamicVariable){
+				LongHistory lh = new LongHistory(capacity, offHeap);
+				((IntDynamicVariable) dynamicVariable).addIntChangeListener(lh);
+				history = lh;
+			}
+			else if(dynamicVariable instanceof LongDynamicVariable){
+				LongHistory lh = new LongHistory(capacity, offHeap);
+				((LongDynamicVariable) dynamicVariable).addLongChangeListener(lh);
+				history = lh;
+			}
+			else if(dynamicVariable instanceof DoubleDynamicVariable){
+				DoubleHistory dh = new DoubleHistory(capacity, offHeap);
+				((DoubleDynamicVariable) dynamicVariable).addDoubleChangeListener(dh);
+				history = dh;
+			}
+			else{
+				history = addObjectHistory(dynamicVariable, capacity);
+			}
+			histories.put(dynamicVariable, history);
+			return history;
+		}
+	}
+
+	protected <V> ObjectHistory<V> addObjectHistory(DynamicVariable<V> dynamicVariable,
+			int capacity){
+		ObjectHistory<V> history = new ObjectHistory<V>(capacity);
+		dynamicVariable.addChangeListener(history);
+		return history;
+	}
+
+	public VariableHistory<?> getHistory(DynamicVariable<? extends T> dynamicVariable){
+		synchronized(histories){
+			return histories.get(dynamicVariable);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public boolean disableHistory(DynamicVariable<? extends T> dynamicVariable){
+		VariableHistory<?> history;
+		synchronized(histories){
+			history = histories.remove(dynamicVariable);
+		}
+		if(history == null){
+			return false;
+		}
+		if(history instanceof LongHistory){
+			if(dynamicVariable instanceof IntDynamicVariable){
+				((IntDynamicVariable) dynamicVariable).removeIntChangeListener(
+						(LongHistory) history);
+			}
+			else{
+				((LongDynamicVariable) dynamicVariable).removeLongChangeListener(
+						(LongHistory) history);
+			}
+		}
+		else if(history instanceof DoubleHistory){
+			((DoubleDynamicVariable) dynamicVariable).removeDoubleChangeListener(
+					(DoubleHistory) history);
+		}
+		else{
+			dynamicVariable.removeChangeListener((VariableListener<Object>) history);
+		}
+		return true;
+	}
+
 	public boolean attachAllSuppliers(Collection<? extends Supplier<? extends T>> supplier){
 		Lock lock = variableLock.writeLock();
 		lock.lock();
 		boolean b;
 		try{
 			b = suppliers.addAll(supplier);
+			supplierModCount++;
 		}
 		finally{
 			lock.unlock();
@@ -131,6 +545,8 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		boolean b;
 		try{
 			b = suppliers.remove(supplier);
+			supplierIntervals.remove(supplier);
+			supplierModCount++;
 		}
 		finally{
 			lock.unlock();
@@ -144,7 +560,14 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		boolean b;
 		try{
 			b = dynamicVariables.remove(dynamicVariable);
-			dynamicVariable.removeChangeListener(this);
+			removeListener(dynamicVariable);
+			if(b && dynamicVariable instanceof SampledDynamicVariable){
+				((SampledDynamicVariable<?>) dynamicVariable).removeSampler(this);
+			}
+			sampledVariables.remove(dynamicVariable);
+			for(ChangeRecorder recorder : recorders){
+				removeRecorderListener(dynamicVariable, recorder);
+			}
 		}
 		finally{
 			lock.unlock();
@@ -159,6 +582,8 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		boolean b;
 		try{
 			b = suppliers.removeAll(supplier);
+			supplierIntervals.keySet().removeAll(supplier);
+			supplierModCount++;
 		}
 		finally{
 			lock.unlock();
@@ -182,6 +607,7 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	public void clearVariables(){
 		Lock lock = variableLock.writeLock();
+		lock.lock();
 		try{
 			List<? extends DynamicVariable<? extends T>> dvclone = new
 					ArrayList<DynamicVariable<? extends T>>(dynamicVariables);
@@ -194,8 +620,11 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	public void clearSuppliers(){
 		Lock lock = variableLock.writeLock();
+		lock.lock();
 		try{
 			suppliers.clear();
+			supplierIntervals.clear();
+			supplierModCount++;
 		}
 		finally{
 			lock.unlock();
@@ -204,6 +633,7 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	public void clear(){
 		Lock lock = variableLock.writeLock();
+		lock.lock();
 		try{
 			clearVariables();
 			clearSuppliers();
@@ -213,15 +643,51 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		}
 	}
 
+	//The Swing components are created by DebuggerPanel, so that a headless
+	//Debugger never loads them
 	public synchronized JPanel init(){
-		if(init){
+		if(!start()){
 			return null;
 		}
+		return DebuggerPanel.create(this);
+	}
+
+	//Starts sampling without a DebuggerPanel; updates go to the updatables
+	//added with addUpdatable, e.g. a LatestValueSink or a RollingLogSink
+	//Returns false if the Debugger had already been started
+	public synchronized boolean initHeadless(){
+		return start();
+	}
+
+	protected synchronized boolean start(){
+		if(init){
+			return false;
+		}
 		init = true;
 		new Thread(this.new DebuggerUpdater()).start();
-		DebuggerPanel panel = new DebuggerPanel(this);
-		updatables.add(panel);
-		return panel;
+		return true;
+	}
+
+	public boolean addUpdatable(DebuggerUpdatable updatable){
+		return updatables.add(updatable);
+	}
+
+	public boolean removeUpdatable(DebuggerUpdatable updatable){
+		deltas.remove(updatable);
+		return updatables.remove(updatable);
+	}
+
+	//The next delta given to the updatable holds every supplier value
+	//Updatables that accept deltas get a full one when they are added
+	public void requestResync(DebuggerUpdatable updatable){
+		SupplierDeltaBuilder builder = deltas.get(updatable);
+		if(builder != null){
+			builder.requestFull();
+		}
+	}
+
+	protected SupplierDeltaBuilder deltaBuilder(DebuggerUpdatable updatable){
+		return deltas.computeIfAbsent(updatable, (u) -> new SupplierDeltaBuilder(true));
 	}
 
 	public static <T> Debugger<T> getDebugger(){
@@ -235,26 +701,16 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	public static <T> Debugger<T> getDebugger(WindowListener closeListener){
 		Debugger<T> debugger = new Debugger<T>();
-		JFrame frame = new JFrame();
-		frame.setTitle("Dynamic Debugger Test");
-		frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-		frame.setBounds(100, 100, 400, 300);
-		frame.addWindowListener(new WindowAdapter(){
-			@Override
-			public void windowClosed(WindowEvent e){
-				try{
-					debugger.close();
-					closeListener.windowClosed(e);
-				}
-				catch(IOException e1){
-					// TODO Auto-generated catch block
-					e1.printStackTrace();
-				}
-			}
-		});
-		frame.setLayout(new BorderLayout());
-		frame.add(debugger.init(), BorderLayout.CENTER);
-		frame.setVisible(true);
+		DebuggerPanel.openFrame(debugger, closeListener);
+		return debugger;
+	}
+
+	public static <T> Debugger<T> getHeadlessDebugger(DebuggerUpdatable... sinks){
+		Debugger<T> debugger = new Debugger<T>();
+		for(DebuggerUpdatable sink : sinks){
+			debugger.addUpdatable(sink);
+		}
+		debugger.initHeadless();
 		return debugger;
 	}
 
@@ -271,6 +727,16 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		finally{
 			writeLock.unlock();
 		}
+		synchronized(hubWatches){
+			for(SubscriptionHub.Watch watch : hubWatches){
+				watch.cancel();
+			}
+			hubWatches.clear();
+		}
+		//Other Debuggers the variables are attached to take over sampling them
+		for(SampledDynamicVariable<?> variable : sampledVariables){
+			variable.removeSampler(this);
+		}
 	}
 
 	protected class DebuggerUpdater implements Runnable{
@@ -299,45 +765,85 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 			@Override
 			public void run(){
+				long start = System.nanoTime();
+				try{
+					tick();
+				}
+				finally{
+					metrics.tickDuration.record(System.nanoTime() - start);
+				}
+			}
+
+			protected void tick(){
 				if(updateLast){
 					updateLast = false;
 				}
 				else if(!update){
 					return;
 				}
+				//Their changes reach the updatables as change events
+				for(SampledDynamicVariable<?> variable : sampledVariables){
+					variable.sample(Debugger.this);
+				}
+				boolean full = false;
+				boolean resync = false;
+				for(DebuggerUpdatable updater : updatables){
+					if(!updater.acceptsDeltas()){
+						full = true;
+					}
+					else if(deltaBuilder(updater).needsFull()){
+						resync = true;
+					}
+				}
+				boolean changed;
+				SupplierDelta delta = null;
+				SupplierSnapshot snapshot = null;
 				Lock vrLock = variableLock.readLock();
 				vrLock.lock();
 				try{
-					//lazy hash code checking
-
-					//can fail to update in case of collisions
-					int supplierHash = 0;
-					for(Supplier<? extends T> supplier : suppliers){
-						T t = supplier.get();
-						supplierHash = 31*supplierHash + (t == null ? 0 : t.hashCode());
+					//Each supplier is read once; the results are shared by all updatables
+					changed = sampler.sample(suppliers, supplierIntervals, supplierModCount);
+					if(sampler.isTiming() && ++metricsTick * delay >= 1000){
+						metricsTick = 0;
+						metrics.setSupplierTimes(sampler.takeSupplierTimes());
 					}
-					//int varHash = 0;
-					//for(DynamicVariable<? extends T> var : dynamicVariables){
-					//	T t = var.get();
-					//	varHash = 31*varHash + (t == null ? 0 : t.hashCode());
-					//}
-					int hash = supplierHash;
-					//int hash = varHash ^ supplierHash;
-					if(hash == lastHash){
+					if(!changed && !resync){
 						return;
 					}
-					else{
-						lastHash = hash;
+					if(changed){
+						delta = sampler.getDelta();
+					}
+					//The full snapshot is only built if some updatable needs it
+					if(changed && full || resync){
+						snapshot = sampler.getSnapshot();
 					}
 				}
 				finally{
 					vrLock.unlock();
 				}
-				synchronized(updatables){
-					ExecutorService executor = DynamicVariableHolder.getExecutor();
-					for(DebuggerUpdatable updater : updatables){
-						executor.execute(DebuggerUpdater.this.new
-								DebuggerUpdateDispatcher(updater));
+				DispatchExecutor executor = getDispatcher();
+				for(DebuggerUpdatable updater : updatables){
+					if(updater.acceptsDeltas()){
+						SupplierDeltaBuilder builder = deltaBuilder(updater);
+						if(builder.needsFull()){
+							if(snapshot == null){
+								//Added since the check above; resynced next tick
+								continue;
+							}
+							builder.reset(snapshot.getValues(), snapshot.getVersion(),
+									snapshot.getTimeStamp());
+						}
+						else if(delta != null){
+							builder.merge(delta);
+						}
+						if(!builder.isEmpty()){
+							executor.dispatch(Debugger.this, updater, DebuggerUpdater.this.new
+									DebuggerDeltaDispatcher(updater, builder));
+						}
+					}
+					else if(changed){
+						executor.dispatch(Debugger.this, updater, DebuggerUpdater.this.new
+								DebuggerUpdateDispatcher(updater, snapshot));
 					}
 				}
 			}
@@ -346,9 +852,12 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		protected class DebuggerUpdateDispatcher implements Runnable{
 
 			protected DebuggerUpdatable updatable;
+			protected SupplierSnapshot snapshot;
 
-			public DebuggerUpdateDispatcher(DebuggerUpdatable updatable){
+			public DebuggerUpdateDispatcher(DebuggerUpdatable updatable,
+					SupplierSnapshot snapshot){
 				this.updatable = updatable;
+				this.snapshot = snapshot;
 			}
 
 			@Override
@@ -359,37 +868,42 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 					return;
 				}
 				try{
-					Map<String, String> map = new HashMap<String, String>();
-					Lock vrLock = variableLock.readLock();
-					vrLock.lock();
-					try{
-						//for(DynamicVariable<? extends T> dv : dynamicVariables){
-						//	map.put(dv.getName(), dv.get().toString());
-						//}
-						for(Supplier<? extends T> dv : suppliers){
-							String key = dv.toString();
-							String value = dv.get().toString();
-
-							if(value.startsWith("%$")){
-								if(value.endsWith("=")){
-									key = value.substring(0, value.length() - 1);
-									value = "";
-								}
-								else{
-									int i = value.indexOf("=");
-									if(i != -1){
-										key = value.substring(2, i);
-										value = value.substring(i+1);
-									}
-								}
-							}
-							map.put(key, value);
+					updatable.update(snapshot.getValues());
+				}
+				finally{
+					readLock.unlock();
+				}
+			}
+
+		}
+
+		//Takes whatever changes have been merged into the builder, so a dispatch
+		//that was dropped or coalesced loses nothing
+		protected class DebuggerDeltaDispatcher implements Runnable{
+
+			protected DebuggerUpdatable updatable;
+			protected SupplierDeltaBuilder builder;
+
+			public DebuggerDeltaDispatcher(DebuggerUpdatable updatable,
+					SupplierDeltaBuilder builder){
+				this.updatable = updatable;
+				this.builder = builder;
+			}
+
+			@Override
+			public void run(){
+				Lock readLock = resourceLock.readLock();
+				if(!readLock.tryLock()){
+					timer.cancel();
+					return;
+				}
+				try{
+					synchronized(builder.deliveryLock){
+						SupplierDelta delta = builder.take();
+						if(delta != null){
+							updatable.update(delta);
 						}
 					}
-					finally{
-						vrLock.unlock();
-					}
-					updatable.update(map);
 				}
 				finally{
 					readLock.unlock();
@@ -400,10 +914,31 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	}
 
-	protected interface DebuggerUpdatable{
+	//Receives the Debugger's output; DebuggerPanel is the Swing implementation
+	//Updatables that accept deltas are given update(SupplierDelta) with only
+	//the supplier values that changed, instead of update(Map) with all of them
+	public interface DebuggerUpdatable{
 		void update(Map<String, String> table);
 		void push(String key, String value);
 		void setExecutionState(String state);
+
+		default boolean acceptsDeltas(){
+			return false;
+		}
+
+		//Only called if acceptsDeltas returns true; by default the delta is
+		//applied to a copy of the table kept for the updatable, and the
+		//whole table is given to update(Map)
+		default void update(SupplierDelta delta){
+			update(DeltaTables.apply(this, delta));
+		}
+
+		//Called for changes of variables instead of push(String, String);
+		//updatables that do not always show every value should keep the
+		//LazyValue and only call getText when the text is needed
+		default void pushLazy(String key, LazyValue value){
+			push(key, value.getText());
+		}
 	}
 
 	public boolean isDone(){
@@ -423,6 +958,11 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 	protected volatile int skips = 0;
 	protected volatile boolean skipForever = false;
 
+	protected volatile boolean breakpointsEnabled = true;
+	protected volatile Breakpoint pausedAt;
+	protected ConcurrentHashMap<String, Breakpoint> breakpoints =
+			new ConcurrentHashMap<String, Breakpoint>();
+
 	public boolean pause(){
 		return pause(true);
 	}
@@ -434,31 +974,39 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 	//False if the pause has been skipped, true otherwise;
 	//If hold, stop updating
 	//If cache, apply changes upon resuming
+	//Skipped pauses return without taking any lock
 	public boolean pause(boolean hold, boolean cache){
+		return pause(hold, cache, null);
+	}
+
+	//Pauses at the breakpoint, or at an unnamed pause if null
+	protected boolean pause(boolean hold, boolean cache, Breakpoint breakpoint){
 		if(cache && !hold){
 			throw new IllegalArgumentException(
 					"cache cannot be true while hold is false");
 		}
+		if(!breakpointsEnabled || skipForever || trySkip()){
+			return false;
+		}
 		synchronized(pauseLock){
-			if(skipForever){
-				return false;
-			}
-			if(skips > 0){
-				skips--;
+			//resumeExecution may have been called since the checks above
+			if(skipForever || trySkip()){
 				return false;
 			}
 			paused = true;
+			pausedAt = breakpoint;
 			if(hold){
 				held = true;
 				cached = cache;
 				update = false;
 				updateLast = true;
-			}
-			synchronized(updatables){
-				for(DebuggerUpdatable du : updatables){
-					du.setExecutionState("Paused");
+				if(cache){
+					journal.open();
 				}
 			}
+			for(DebuggerUpdatable du : updatables){
+				du.setExecutionState("Paused");
+			}
 			while(paused){
 				try{
 					pauseLock.wait();
@@ -472,6 +1020,65 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		}
 	}
 
+	protected boolean trySkip(){
+		int s;
+		while((s = skips) > 0){
+			if(SKIPS.compareAndSet(this, s, s - 1)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//While disabled, every pause and breakpoint returns false at once
+	public void setBreakpointsEnabled(boolean enabled){
+		breakpointsEnabled = enabled;
+	}
+
+	public boolean isBreakpointsEnabled(){
+		return breakpointsEnabled;
+	}
+
+	//The breakpoint with the name, created (and shown, see Breakpoint) on
+	//first use
+	public Breakpoint breakpoint(String name){
+		Objects.requireNonNull(name);
+		Breakpoint breakpoint = breakpoints.get(name);
+		if(breakpoint != null){
+			return breakpoint;
+		}
+		Breakpoint created = new Breakpoint(this, name);
+		breakpoint = breakpoints.putIfAbsent(name, created);
+		if(breakpoint != null){
+			return breakpoint;
+		}
+		attachSupplier(castSupplier(created.supplier));
+		return created;
+	}
+
+	//Shorthand for breakpoint(name).pause()
+	public boolean pause(String name){
+		return breakpoint(name).pause();
+	}
+
+	public boolean removeBreakpoint(String name){
+		Breakpoint breakpoint = breakpoints.remove(name);
+		if(breakpoint == null){
+			return false;
+		}
+		return unattachSupplier(castSupplier(breakpoint.supplier));
+	}
+
+	public Collection<Breakpoint> getBreakpoints(){
+		return Collections.unmodifiableCollection(breakpoints.values());
+	}
+
+	//The breakpoint the Debugger is paused at, or null if it is not paused
+	//or paused by an unnamed pause
+	public Breakpoint getPausedBreakpoint(){
+		return paused ? pausedAt : null;
+	}
+
 	public void setUpdate(boolean update){
 		synchronized(pauseLock){
 			this.update = update;
@@ -482,29 +1089,113 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		}
 	}
 
+	//Held changes are released after the pause has ended, outside of any
+	//lock, BATCH_SIZE at a time, so writers are never blocked by the release
+	//Updates stay held until the journal is empty, so changes made during
+	//the release are journaled after the ones being released rather than
+	//pushed before them, and a released value never replaces a newer one
 	public void resume(){
+		boolean release = false;
 		synchronized(pauseLock){
 			paused = false;
+			pausedAt = null;
 			pauseLock.notifyAll();
 			if(held){
-				update = true;
 				held = false;
-				if(cached){
-					synchronized(holdCache){
-						for(Map.Entry<DynamicVariable<? extends T>, T> entry :
-							holdCache.entrySet()){
-							fireUpdate(entry.getKey(), entry.getValue());
-						}
-					}
-					holdCache.clear();
+				if(cached || !journal.isEmpty()){
+					cached = true;
+					release = true;
+				}
+				else{
+					update = true;
+				}
+			}
+			for(DebuggerUpdatable du : updatables){
+				du.setExecutionState("Running");
+			}
+		}
+		if(release){
+			release();
+		}
+	}
+
+	protected void release(){
+		while(true){
+			PauseJournal.Drain drain;
+			synchronized(pauseLock){
+				//Held again; the rest is released when that pause ends
+				if(held){
+					return;
+				}
+				try{
+					//Writers that find the journal closed push their changes
+					drain = journal.takeOrClose();
+				}
+				catch(IOException e){
+					journal.failed(e);
+					journal.discardSpilled();
+					continue;
+				}
+				if(drain == null){
 					cached = false;
+					update = true;
+					return;
 				}
 			}
-			synchronized(updatables){
-				for(DebuggerUpdatable du : updatables){
-					du.setExecutionState("Running");
+			release(drain);
+		}
+	}
+
+	protected void release(PauseJournal.Drain drain){
+		try{
+			List<PauseJournal.Entry> batch;
+			while(true){
+				try{
+					batch = drain.nextBatch();
+				}
+				catch(IOException e){
+					//The spilled entries left are lost; the rest are released
+					journal.failed(e);
+					drain.skipSpilled();
+					continue;
+				}
+				if(batch == null){
+					break;
 				}
+				for(PauseJournal.Entry entry : batch){
+					Object value = entry.getValue();
+					if(value instanceof LazyValue){
+						pushUpdate(entry.getKey(), (LazyValue) value);
+					}
+					else{
+						pushUpdate(entry.getKey(), String.valueOf(value));
+					}
+				}
+			}
+		}
+		finally{
+			try{
+				drain.close();
+			}
+			catch(IOException e){
+				journal.failed(e);
+			}
+		}
+	}
+
+	//The changes held by the current pause; can be read while paused
+	public PauseJournal getPauseJournal(){
+		return journal;
+	}
+
+	//Only takes effect for the next pause; changes held by the current
+	//pause stay in the old journal and are released on resume
+	public void setPauseJournal(PauseJournal journal){
+		synchronized(pauseLock){
+			if(held || cached){
+				throw new IllegalStateException("Cannot replace the journal while paused");
 			}
+			this.journal = Objects.requireNonNull(journal);
 		}
 	}
 
@@ -514,18 +1205,20 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 
 	@Override
 	public void resumeExecution(int count){
+		boolean resume;
 		synchronized(pauseLock){
 			if(count < 0){
 				skipForever = true;
-				skips = 0;
+				SKIPS.set(this, 0);
 			}
 			else{
 				skipForever = false;
-				skips += count;
-			}
-			if(isPaused()){
-				resume();
+				SKIPS.addAndGet(this, count);
 			}
+			resume = isPaused();
+		}
+		if(resume){
+			resume();
 		}
 	}
 
@@ -535,65 +1228,172 @@ public class Debugger<T> implements Closeable, DebugInformationReceiver, Variabl
 		return skipForever ? -1 : skips;
 	}
 
+	//Shows the values of the variable as text given by the formatter, instead
+	//of their toString(); null restores the default
+	@SuppressWarnings("unchecked")
+	public <U extends T> void setFormatter(DynamicVariable<U> dynamicVariable,
+			Function<? super U, String> formatter){
+		Objects.requireNonNull(dynamicVariable);
+		formats.compute(dynamicVariable, (v, f) -> ValueFormat.with(
+				(Function<Object, String>) formatter, f == null ? null : f.copier));
+	}
+
+	//Since values are formatted after the change, possibly on another thread,
+	//a mutable value could be shown with later modifications; the copier is
+	//called on every change of the variable to take a copy that will not
+	//change (e.g. ArrayList::new), which is formatted instead
+	//Copiers of primitive variables are never called
+	//null removes the copier
+	@SuppressWarnings("unchecked")
+	public <U extends T> void setCopier(DynamicVariable<U> dynamicVariable,
+			UnaryOperator<U> copier){
+		Objects.requireNonNull(dynamicVariable);
+		formats.compute(dynamicVariable, (v, f) -> ValueFormat.with(
+				f == null ? null : f.formatter, (UnaryOperator<Object>) copier));
+	}
+
+	protected static class ValueFormat{
+
+		protected Function<Object, String> formatter;
+		protected UnaryOperator<Object> copier;
+
+		protected ValueFormat(Function<Object, String> formatter,
+				UnaryOperator<Object> copier){
+			this.formatter = formatter;
+			this.copier = copier;
+		}
+
+		//Null if both are the defaults
+		protected static ValueFormat with(Function<Object, String> formatter,
+				UnaryOperator<Object> copier){
+			if(formatter == null && copier == null){
+				return null;
+			}
+			return new ValueFormat(formatter, copier);
+		}
+	}
+
 	@Override
 	public void changeOccured(VariableChangeEvent<? extends T> e){
 		Objects.requireNonNull(e);
+		metrics.eventsReceived.increment();
 		fireUpdate(e.getSource(), e.getNewValue());
 	}
 
 	protected void fireUpdate(DynamicVariable<? extends T> source, T newValue){
 		//Depends on updateLast to be updated by traditional updating methods
-		if(!updateLast && !update){
-			if(cached){
-				holdCache.put(source, newValue);
-			}
+		boolean hold = !updateLast && !update;
+		if(hold && !cached){
 			return;
 		}
-		synchronized(updatables){
-			ExecutorService executor = DynamicVariableHolder.getExecutor();
-			String key;
-			String value;
-			if(newValue == null){
-				value = "null";
-			}
-			else{
-				value = newValue.toString();
-			}
-			String sourceName = source.getName();
-			if(source == null || sourceName == null){
-				if(value.startsWith("%$")){
-					if(value.endsWith("=")){
-						key = value.substring(0, value.length() - 1);
-						value = "";
-					}
-					else{
-						int i = value.indexOf("=");
-						if(i != -1){
-							key = value.substring(2, i);
-							value = value.substring(i+1);
-						}
-						else{
-							key = "null";
-						}
-					}
-				}
-				else{
-					key = "null";
-				}
-			}
-			else{
-				key = sourceName;
+		String key = source == null ? null : source.getName();
+		if(key == null){
+			String value = String.valueOf(newValue);
+			key = SupplierPattern.key(value, "null");
+			value = SupplierPattern.value(value);
+			if(!holdUpdate(key, value)){
+				pushUpdate(key, value);
 			}
-			String finalValue = value;
-			for(DebuggerUpdatable updater : updatables){
-				executor.execute(() -> updater.push(
-						key, finalValue));
+			return;
+		}
+		LazyValue value = lazyValue(source, newValue);
+		if(!holdUpdate(key, value)){
+			pushUpdate(key, value);
+		}
+	}
+
+	//The value is only formatted once an updatable needs its text
+	protected LazyValue lazyValue(DynamicVariable<? extends T> source, T newValue){
+		ValueFormat format = formats.get(source);
+		if(format == null){
+			return new LazyValue(newValue);
+		}
+		Object value = format.copier == null || newValue == null ?
+				newValue : format.copier.apply(newValue);
+		return format.formatter == null ? new LazyValue(value) :
+			new LazyValue(value, format.formatter);
+	}
+
+	protected void pushUpdate(String key, LazyValue value){
+		DispatchExecutor executor = getDispatcher();
+		String token = keyToken(key);
+		for(DebuggerUpdatable updater : updatables){
+			executor.dispatch(updater, token, () -> updater.pushLazy(
+					key, value));
+		}
+	}
+
+	protected void pushUpdate(String key, String value){
+		DispatchExecutor executor = getDispatcher();
+		String token = keyToken(key);
+		for(DebuggerUpdatable updater : updatables){
+			executor.dispatch(updater, token, () -> updater.push(
+					key, value));
+		}
+	}
+
+	//Changes of a key share a target however the key String was made, so
+	//they are still coalesced and kept in order
+	protected String keyToken(String key){
+		String token = keyTokens.get(key);
+		if(token == null){
+			token = keyTokens.putIfAbsent(key, key);
+			if(token == null){
+				token = key;
 			}
 		}
+		return token;
 	}
-}
 
-interface DebugInformationReceiver{
-	void resumeExecution(int count);
-	int getSkipCount();
+	//Returns true if the update was held back by a pause; the value is a
+	//String or a LazyValue
+	protected boolean holdUpdate(String key, Object value){
+		if(!updateLast && !update){
+			//The journal is closed once resume has released it
+			return !cached || journal.record(key, value, System.currentTimeMillis());
+		}
+		return false;
+	}
+
+	//Receives primitive change events; the value is kept unboxed in an
+	//IntLazyValue, LongLazyValue or DoubleLazyValue and only formatted when
+	//an updatable needs its text, with the formatter set for the variable
+	//if any (which is given the boxed value) or else the toString of the
+	//boxed type; primitive values are immutable, so copiers are not called
+	protected class PrimitiveVariableListener implements IntVariableListener,
+	LongVariableListener, DoubleVariableListener{
+
+		@Override
+		public void changeOccured(IntVariableChangeEvent e){
+			Function<Object, String> formatter = formatterOf(e.getSource());
+			changed(e.getSource(), formatter == null ? new IntLazyValue(e.getNewValue()) :
+				new IntLazyValue(e.getNewValue(), formatter));
+		}
+
+		@Override
+		public void changeOccured(LongVariableChangeEvent e){
+			Function<Object, String> formatter = formatterOf(e.getSource());
+			changed(e.getSource(), formatter == null ? new LongLazyValue(e.getNewValue()) :
+				new LongLazyValue(e.getNewValue(), formatter));
+		}
+
+		@Override
+		public void changeOccured(DoubleVariableChangeEvent e){
+			Function<Object, String> formatter = formatterOf(e.getSource());
+			changed(e.getSource(), formatter == null ? new DoubleLazyValue(e.getNewValue()) :
+				new DoubleLazyValue(e.getNewValue(), formatter));
+		}
+
+		protected Function<Object, String> formatterOf(DynamicVariable<?> source){
+			ValueFormat format = formats.get(source);
+			return format == null ? null : format.formatter;
+		}
+
+		protected void changed(DynamicVariable<?> source, LazyValue value){
+			metrics.eventsReceived.increment();
+			if(!holdUpdate(source.getName(), value)){
+				pushUpdate(source.getName(), value);
+			}
+		}
+	}
 }
@@ -0,0 +1,193 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+//Counters and histograms a Debugger keeps about its own overhead; they are
+//always kept, and are read with snapshot or shown as suppliers (see
+//Debugger.enableMetrics)
+//Times are in nanoseconds
+public class DebuggerMetrics{
+
+	public static final String PREFIX = "debugger.";
+
+	protected Debugger<?> debugger;
+	protected LongAdder eventsReceived = new LongAdder();
+	protected Log2Histogram tickDuration = new Log2Histogram();
+	protected Log2Histogram refreshDelay = new Log2Histogram();
+	protected volatile IntSupplier refreshBacklog;
+	//Replaced about once a second while supplier timing is on
+	protected volatile Map<String, Long> supplierTimes = Collections.emptyMap();
+
+	public DebuggerMetrics(Debugger<?> debugger){
+		this.debugger = debugger;
+	}
+
+	//Changes of attached variables received by the Debugger
+	public long getEventsReceived(){
+		return eventsReceived.sum();
+	}
+
+	//Time taken by each sampling tick, including dispatching to updatables
+	public Log2Histogram getTickDuration(){
+		return tickDuration;
+	}
+
+	//Time from the first change pushed to a DebuggerPanel until the table
+	//showed it
+	public Log2Histogram getRefreshDelay(){
+		return refreshDelay;
+	}
+
+	//Changes waiting for the next table refresh
+	public int getRefreshBacklog(){
+		IntSupplier backlog = refreshBacklog;
+		return backlog == null ? 0 : backlog.getAsInt();
+	}
+
+	//Set by the DebuggerPanel created last for the Debugger
+	protected void setRefreshBacklog(IntSupplier backlog){
+		refreshBacklog = backlog;
+	}
+
+	//Mean time of each supplier's get() over about the last second
+	public Map<String, Long> getSupplierTimes(){
+		return supplierTimes;
+	}
+
+	protected void setSupplierTimes(Map<String, Long> times){
+		supplierTimes = Collections.unmodifiableMap(times);
+	}
+
+	public Snapshot snapshot(){
+		DispatchExecutor executor = debugger.getDispatcher();
+		return new Snapshot(AbstractDynamicVariable.getFiredEventCount(),
+				getEventsReceived(), executor.getDispatchedCount(),
+				executor.getDroppedCount(), executor.getQueueSize(),
+				executor.getDispatchLatency().summarize(), tickDuration.summarize(),
+				getSupplierTimes(), getRefreshBacklog(), refreshDelay.summarize());
+	}
+
+	//The metrics as keyed suppliers, each under PREFIX
+	protected List<KeyedSupplier<Object>> suppliers(){
+		List<KeyedSupplier<Object>> list = new ArrayList<KeyedSupplier<Object>>();
+		list.add(KeyedSupplier.of(PREFIX + "eventsFired",
+				AbstractDynamicVariable::getFiredEventCount));
+		list.add(KeyedSupplier.of(PREFIX + "eventsReceived", this::getEventsReceived));
+		list.add(KeyedSupplier.of(PREFIX + "tasksDispatched",
+				() -> debugger.getDispatcher().getDispatchedCount()));
+		list.add(KeyedSupplier.of(PREFIX + "tasksDropped",
+				() -> debugger.getDispatcher().getDroppedCount()));
+		list.add(KeyedSupplier.of(PREFIX + "queueDepth",
+				() -> debugger.getDispatcher().getQueueSize()));
+		list.add(KeyedSupplier.of(PREFIX + "dispatchLatency",
+				() -> debugger.getDispatcher().getDispatchLatency().summarize()));
+		list.add(KeyedSupplier.of(PREFIX + "tickDuration", tickDuration::summarize));
+		list.add(KeyedSupplier.of(PREFIX + "slowestSupplier", this::slowestSupplier));
+		list.add(KeyedSupplier.of(PREFIX + "refreshBacklog", this::getRefreshBacklog));
+		list.add(KeyedSupplier.of(PREFIX + "refreshDelay", refreshDelay::summarize));
+		return list;
+	}
+
+	protected String slowestSupplier(){
+		String slowest = null;
+		long time = -1;
+		for(Map.Entry<String, Long> entry : supplierTimes.entrySet()){
+			if(entry.getValue() > time){
+				slowest = entry.getKey();
+				time = entry.getValue();
+			}
+		}
+		return slowest == null ? "none" : slowest + " " + time + "ns";
+	}
+
+	//The metrics at one point in time
+	public static class Snapshot{
+
+		protected long eventsFired;
+		protected long eventsReceived;
+		protected long tasksDispatched;
+		protected long tasksDropped;
+		protected int queueDepth;
+		protected Log2Histogram.Summary dispatchLatency;
+		protected Log2Histogram.Summary tickDuration;
+		protected Map<String, Long> supplierTimes;
+		protected int refreshBacklog;
+		protected Log2Histogram.Summary refreshDelay;
+
+		public Snapshot(long eventsFired, long eventsReceived, long tasksDispatched,
+				long tasksDropped, int queueDepth, Log2Histogram.Summary dispatchLatency,
+				Log2Histogram.Summary tickDuration, Map<String, Long> supplierTimes,
+				int refreshBacklog, Log2Histogram.Summary refreshDelay){
+			this.eventsFired = eventsFired;
+			this.eventsReceived = eventsReceived;
+			this.tasksDispatched = tasksDispatched;
+			this.tasksDropped = tasksDropped;
+			this.queueDepth = queueDepth;
+			this.dispatchLatency = dispatchLatency;
+			this.tickDuration = tickDuration;
+			this.supplierTimes = Collections.unmodifiableMap(
+					new HashMap<String, Long>(supplierTimes));
+			this.refreshBacklog = refreshBacklog;
+			this.refreshDelay = refreshDelay;
+		}
+
+		//By every variable, not only the ones attached to the Debugger
+		public long getEventsFired(){
+			return eventsFired;
+		}
+
+		public long getEventsReceived(){
+			return eventsReceived;
+		}
+
+		//By every variable and Debugger using the same DispatchExecutor
+		public long getTasksDispatched(){
+			return tasksDispatched;
+		}
+
+		public long getTasksDropped(){
+			return tasksDropped;
+		}
+
+		public int getQueueDepth(){
+			return queueDepth;
+		}
+
+		public Log2Histogram.Summary getDispatchLatency(){
+			return dispatchLatency;
+		}
+
+		public Log2Histogram.Summary getTickDuration(){
+			return tickDuration;
+		}
+
+		public Map<String, Long> getSupplierTimes(){
+			return supplierTimes;
+		}
+
+		public int getRefreshBacklog(){
+			return refreshBacklog;
+		}
+
+		public Log2Histogram.Summary getRefreshDelay(){
+			return refreshDelay;
+		}
+
+		@Override
+		public String toString(){
+			return "eventsFired=" + eventsFired + ", eventsReceived=" + eventsReceived +
+					", tasksDispatched=" + tasksDispatched + ", tasksDropped=" +
+					tasksDropped + ", queueDepth=" + queueDepth + ", dispatchLatency=[" +
+					dispatchLatency + "], tickDuration=[" + tickDuration +
+					"], supplierTimes=" + supplierTimes + ", refreshBacklog=" +
+					refreshBacklog + ", refreshDelay=[" + refreshDelay + "]";
+		}
+
+	}
+}
@@ -4,27 +4,55 @@ import java.awt.BorderLayout;
 import java.awt.EventQueue;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.TreeMap;
 
 import javax.swing.JButton;
+import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.Timer;
 import javax.swing.table.AbstractTableModel;
 
 import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
 
 class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 
+	//Pushes and updates are merged into one table refresh per frame
+	public static final int FRAME_MILLIS = 16;
+	//Marks a pending removal in pendingChanges
+	protected static final String REMOVED = new String("REMOVED");
+
 	protected DebugInformationReceiver dir;
 	protected Object tableLock;
 	protected Set<String> supplierKeys;
-	protected Map<String, String> values;
+	//Guarded by tableLock; key to new value (a String or a LazyValue) or REMOVED
+	protected Map<String, Object> pendingChanges;
+	protected boolean refreshScheduled = false;
+	//Guarded by tableLock; when the pending refresh was scheduled
+	protected long refreshRequested;
+	//Set if the panel shows a local Debugger
+	protected DebuggerMetrics metrics;
+	protected Timer refreshTimer;
+	//Only accessed on the event dispatch thread; keys is sorted and
+	//rowValues holds the value of each row; LazyValues are only formatted
+	//when their row is painted
+	protected List<String> keys;
+	protected List<Object> rowValues;
 	protected DebuggerTableModel model;
 	protected JScrollPane scrollPane;
 
@@ -32,12 +60,15 @@ class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 		this.dir = dir;
 		setLayout(new BorderLayout());
 		tableLock = new Object();
-		values = new ConcurrentSkipListMap<String, String>();
-		supplierKeys = new ConcurrentSkipListSet<String>();
+		pendingChanges = new HashMap<String, Object>();
+		supplierKeys = new HashSet<String>();
+		keys = new ArrayList<String>();
+		rowValues = new ArrayList<Object>();
+		refreshTimer = new Timer(FRAME_MILLIS, (e) -> applyChanges());
+		refreshTimer.setRepeats(false);
 		model = new DebuggerTableModel();
 		table = new JTable(model);
 		scrollPane = new JScrollPane(table);
-		scrollPane.add(table);
 		add(scrollPane, BorderLayout.CENTER);
 
 		JPanel panel = new JPanel();
@@ -85,6 +116,68 @@ class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 		textField.setColumns(2);
 	}
 
+	//Returns JPanel so that Debugger does not need to load DebuggerPanel
+	public static JPanel create(Debugger<?> debugger){
+		DebuggerPanel panel = new DebuggerPanel(debugger);
+		panel.metrics = debugger.getMetrics();
+		panel.metrics.setRefreshBacklog(panel::getPendingCount);
+		debugger.addUpdatable(panel);
+		return panel;
+	}
+
+	public static JFrame openFrame(Debugger<?> debugger, WindowListener closeListener){
+		JFrame frame = new JFrame();
+		frame.setTitle("Dynamic Debugger Test");
+		frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		frame.setBounds(100, 100, 400, 300);
+		frame.addWindowListener(new WindowAdapter(){
+			@Override
+			public void windowClosed(WindowEvent e){
+				try{
+					debugger.close();
+					closeListener.windowClosed(e);
+				}
+				catch(IOException e1){
+					// TODO Auto-generated catch block
+					e1.printStackTrace();
+				}
+			}
+		});
+		frame.setLayout(new BorderLayout());
+		frame.add(debugger.init(), BorderLayout.CENTER);
+		frame.setVisible(true);
+		return frame;
+	}
+
+	//Shows the updates received by the client; closing the window closes the
+	//connection
+	public static JFrame openRemoteFrame(RemoteDebuggerClient client){
+		DebuggerPanel panel = new DebuggerPanel(client);
+		client.addUpdatable(panel);
+		JFrame frame = new JFrame();
+		frame.setTitle("Dynamic Debugger Remote");
+		frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		frame.setBounds(100, 100, 400, 300);
+		frame.addWindowListener(new WindowAdapter(){
+			@Override
+			public void windowClosed(WindowEvent e){
+				try{
+					client.close();
+				}
+				catch(IOException e1){
+					//The window is gone, so report it like any other error
+					//on this thread
+					Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e1);
+				}
+			}
+		});
+		frame.setLayout(new BorderLayout());
+		frame.add(panel, BorderLayout.CENTER);
+		frame.setVisible(true);
+		return frame;
+	}
+
 	private static final long serialVersionUID = 623716694098971561L;
 	private JTable table;
 	private JTextField textField;
@@ -92,35 +185,177 @@ class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 	private JButton btnResume;
 	private JLabel lblSkipPauses;
 
+	//Suppliers that are missing from the map have been removed
 	@Override
 	public void update(Map<String, String> map){
 		synchronized(tableLock){
-			supplierKeys.forEach((s) -> values.remove(s));
-			values.putAll(map);
-			refreshTable();
+			for(String key : supplierKeys){
+				if(!map.containsKey(key)){
+					pendingChanges.put(key, REMOVED);
+				}
+			}
+			supplierKeys = new HashSet<String>(map.keySet());
+			pendingChanges.putAll(map);
+			scheduleRefresh();
+		}
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	//Only the rows of the keys in the delta are touched
+	@Override
+	public void update(SupplierDelta delta){
+		if(delta.isFull()){
+			update(delta.getAdded());
+			return;
+		}
+		synchronized(tableLock){
+			for(String key : delta.getRemoved()){
+				supplierKeys.remove(key);
+				pendingChanges.put(key, REMOVED);
+			}
+			supplierKeys.addAll(delta.getAdded().keySet());
+			pendingChanges.putAll(delta.getAdded());
+			pendingChanges.putAll(delta.getChanged());
+			scheduleRefresh();
 		}
 	}
 
 	@Override
 	public void push(String key, String value){
 		synchronized(tableLock){
-			if(value == null){
-				values.remove(key);
+			pendingChanges.put(key, value == null ? REMOVED : value);
+			scheduleRefresh();
+		}
+	}
+
+	//A value overwritten before the next refresh is never formatted
+	@Override
+	public void pushLazy(String key, LazyValue value){
+		synchronized(tableLock){
+			pendingChanges.put(key, value);
+			scheduleRefresh();
+		}
+	}
+
+	//Called while holding tableLock
+	protected void scheduleRefresh(){
+		if(!refreshScheduled){
+			refreshScheduled = true;
+			refreshRequested = System.nanoTime();
+			EventQueue.invokeLater(() -> refreshTimer.start());
+		}
+	}
+
+	//Changes waiting for the next refresh
+	public int getPendingCount(){
+		synchronized(tableLock){
+			return pendingChanges.size();
+		}
+	}
+
+	//Runs on the event dispatch thread and only fires events for rows that changed
+	//Inserting or deleting a row shifts every row after it, so a refresh
+	//of k such changes costs O(k * rows); above the bulk threshold the rows
+	//are instead rebuilt in one merge, and the whole table is repainted
+	protected void applyChanges(){
+		Map<String, Object> changes;
+		long requested;
+		synchronized(tableLock){
+			changes = pendingChanges;
+			pendingChanges = new HashMap<String, Object>();
+			refreshScheduled = false;
+			requested = refreshRequested;
+		}
+		//Only the changes that would alter a row count
+		int changed = 0;
+		for(Map.Entry<String, Object> entry : changes.entrySet()){
+			Object value = entry.getValue();
+			int i = Collections.binarySearch(keys, entry.getKey());
+			if(value == REMOVED ? i >= 0 : i < 0 || !value.equals(rowValues.get(i))){
+				changed++;
+			}
+		}
+		//Many row events cost more than repainting the whole table
+		if(changed > Math.max(64, keys.size() / 4)){
+			rebuildRows(changes);
+			model.fireTableDataChanged();
+		}
+		else if(changed > 0){
+			applyRowChanges(changes);
+		}
+		if(metrics != null){
+			metrics.refreshDelay.record(System.nanoTime() - requested);
+		}
+	}
+
+	protected void applyRowChanges(Map<String, Object> changes){
+		for(Map.Entry<String, Object> entry : changes.entrySet()){
+			String key = entry.getKey();
+			Object value = entry.getValue();
+			int i = Collections.binarySearch(keys, key);
+			if(value == REMOVED){
+				if(i >= 0){
+					keys.remove(i);
+					rowValues.remove(i);
+					model.fireTableRowsDeleted(i, i);
+				}
+			}
+			else if(i >= 0){
+				if(!value.equals(rowValues.get(i))){
+					rowValues.set(i, value);
+					model.fireTableRowsUpdated(i, i);
+				}
 			}
 			else{
-				values.put(key, value);
+				i = -i - 1;
+				keys.add(i, key);
+				rowValues.add(i, value);
+				model.fireTableRowsInserted(i, i);
 			}
-			refreshTable();
 		}
 	}
 
-	protected void refreshTable(){
-		EventQueue.invokeLater(() -> {
-			model.fireTableDataChanged();
-			scrollPane.setViewportView(table);
-			table.doLayout();
-			repaint();
-		});
+	//Merges the sorted changes into the rows
+	protected void rebuildRows(Map<String, Object> changes){
+		Iterator<Map.Entry<String, Object>> sorted =
+				new TreeMap<String, Object>(changes).entrySet().iterator();
+		Map.Entry<String, Object> next = sorted.hasNext() ? sorted.next() : null;
+		List<String> newKeys = new ArrayList<String>(keys.size() + changes.size());
+		List<Object> newValues = new ArrayList<Object>(keys.size() + changes.size());
+		for(int i = 0; i < keys.size(); i++){
+			String key = keys.get(i);
+			while(next != null && next.getKey().compareTo(key) < 0){
+				if(next.getValue() != REMOVED){
+					newKeys.add(next.getKey());
+					newValues.add(next.getValue());
+				}
+				next = sorted.hasNext() ? sorted.next() : null;
+			}
+			if(next != null && next.getKey().equals(key)){
+				if(next.getValue() != REMOVED){
+					newKeys.add(key);
+					newValues.add(next.getValue());
+				}
+				next = sorted.hasNext() ? sorted.next() : null;
+			}
+			else{
+				newKeys.add(key);
+				newValues.add(rowValues.get(i));
+			}
+		}
+		while(next != null){
+			if(next.getValue() != REMOVED){
+				newKeys.add(next.getKey());
+				newValues.add(next.getValue());
+			}
+			next = sorted.hasNext() ? sorted.next() : null;
+		}
+		keys = newKeys;
+		rowValues = newValues;
 	}
 
 	@Override
@@ -143,7 +378,7 @@ class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 
 		@Override
 		public int getRowCount(){
-			return values.size();
+			return keys.size();
 		}
 
 		@Override
@@ -153,20 +388,12 @@ class DebuggerPanel extends JPanel implements DebuggerUpdatable{
 
 		@Override
 		public String getValueAt(int rowIndex, int columnIndex){
-			if(columnIndex == 0){
-				int counter = 0;
-				for(String s : values.keySet()){
-					if(counter++ == rowIndex){
-						return s;
-					}
+			if(rowIndex >= 0 && rowIndex < keys.size()){
+				if(columnIndex == 0){
+					return keys.get(rowIndex);
 				}
-			}
-			if(columnIndex == 1){
-				int counter = 0;
-				for(String s : values.values()){
-					if(counter++ == rowIndex){
-						return s;
-					}
+				if(columnIndex == 1){
+					return String.valueOf(rowValues.get(rowIndex));
 				}
 			}
 			throw new ArrayIndexOutOfBoundsException(rowIndex + ", " + columnIndex);
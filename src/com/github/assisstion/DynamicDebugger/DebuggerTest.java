@@ -63,7 +63,7 @@ public class DebuggerTest{
 			debugger.attach(time2);
 			new Thread(() -> {
 				while(!debugger.isDone()){
-					time2.set(time2.get() + 1);
+					time2.updateAndGet((i) -> i + 1);
 					try{
 						Thread.sleep(1000);
 					}
@@ -73,7 +73,7 @@ public class DebuggerTest{
 				}
 			}).start();
 			while(!debugger.isDone()){
-				time.set(time.get() + 1);
+				time.updateAndGet((i) -> i + 1);
 				debugger.pause(true, true);
 				Thread.sleep(1000);
 			}
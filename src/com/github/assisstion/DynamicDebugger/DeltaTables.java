@@ -0,0 +1,38 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//The supplier tables of updatables that accept deltas but only implement
+//update(Map) (see DebuggerUpdatable.update(SupplierDelta)), rebuilt from
+//the deltas they are given
+final class DeltaTables{
+
+	//Guarded by itself
+	private static final Map<DebuggerUpdatable, Map<String, String>> tables =
+			new WeakHashMap<DebuggerUpdatable, Map<String, String>>();
+
+	private DeltaTables(){
+		//Not instantiable
+	}
+
+	//The whole table after the delta, as a copy the updatable may keep
+	public static Map<String, String> apply(DebuggerUpdatable updatable, SupplierDelta delta){
+		synchronized(tables){
+			Map<String, String> table = tables.get(updatable);
+			if(table == null || delta.isFull()){
+				table = new HashMap<String, String>();
+				tables.put(updatable, table);
+			}
+			for(String key : delta.getRemoved()){
+				table.remove(key);
+			}
+			table.putAll(delta.getAdded());
+			table.putAll(delta.getChanged());
+			return new HashMap<String, String>(table);
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+//A variable computed from other variables by a function that reads them
+//The value is only computed when an input has changed since it was last
+//computed, and then only when it is read or someone is notified of it
+//A change of an input marks every derived variable that depends on it,
+//directly or not, as dirty on the changing thread, before any of them is
+//recomputed; reading a variable recomputes its dirty inputs first, so where
+//paths through the graph meet again, a variable never mixes a recomputed
+//input with a stale one
+//Listeners are notified in order of rank (a derived variable ranks above
+//every derived variable it reads), each variable once however many of its
+//inputs changed; changes made in a batch are only propagated once the batch
+//ends, and never while another batch runs, so listeners see every change of
+//the batch at once, while changes made outside of a batch are propagated as
+//they come, and a listener may see a state where only some of several
+//related inputs have changed (a function may even read an input before and
+//after it changes, since inputs are read when the function runs)
+//Inputs that are not AbstractDynamicVariables are followed through their
+//change listeners, so their changes are only seen once their listeners are
+//notified, and get none of these guarantees
+//Inputs are given when the variable is created, so the graph has no cycles
+public class DerivedDynamicVariable<T> extends AbstractDynamicVariable<T>{
+
+	protected static final Propagation propagation = new Propagation();
+
+	protected Supplier<? extends T> function;
+	protected List<DynamicVariable<?>> inputs;
+	protected int rank = 0;
+	protected Set<DerivedDynamicVariable<?>> dependents =
+			new CopyOnWriteArraySet<DerivedDynamicVariable<?>>();
+	protected Runnable invalidator = this::invalidate;
+	protected VariableListener<Object> inputListener = (e) -> invalidate();
+	//Set when an input changes; cleared before recomputing, so a change
+	//during the computation is not lost
+	protected volatile boolean dirty = true;
+	//Guarded by this
+	protected T value;
+	//The value listeners were last notified of; guarded by this
+	protected T published;
+	//Guarded by propagation
+	protected boolean queued = false;
+
+	public DerivedDynamicVariable(String name, Supplier<? extends T> function,
+			DynamicVariable<?>... inputs){
+		this(name, function, Arrays.asList(inputs));
+	}
+
+	public DerivedDynamicVariable(String name, Supplier<? extends T> function,
+			Collection<? extends DynamicVariable<?>> inputs){
+		super(name);
+		this.function = Objects.requireNonNull(function);
+		this.inputs = new ArrayList<DynamicVariable<?>>(inputs);
+		for(DynamicVariable<?> input : this.inputs){
+			if(input instanceof DerivedDynamicVariable){
+				DerivedDynamicVariable<?> derived = (DerivedDynamicVariable<?>) input;
+				rank = Math.max(rank, derived.rank + 1);
+				derived.dependents.add(this);
+			}
+			else if(input instanceof AbstractDynamicVariable){
+				((AbstractDynamicVariable<?>) input).addInvalidationListener(invalidator);
+			}
+			else{
+				input.addChangeListener(inputListener);
+			}
+		}
+	}
+
+	//Runs the changes, and propagates them once it returns (or throws) and
+	//no other batch is running; batches may be nested
+	//Propagation of every derived variable waits for the batch, but reads
+	//with get, inside the batch or alongside it, see the changes made so far
+	//Functions of derived variables must not start batches
+	public static void batch(Runnable changes){
+		propagation.beginBatch();
+		try{
+			changes.run();
+		}
+		finally{
+			propagation.endBatch();
+		}
+	}
+
+	public static <A, T> DerivedDynamicVariable<T> of(String name,
+			DynamicVariable<? extends A> a, Function<? super A, ? extends T> function){
+		return new DerivedDynamicVariable<T>(name, () -> function.apply(a.get()), a);
+	}
+
+	public static <A, B, T> DerivedDynamicVariable<T> of(String name,
+			DynamicVariable<? extends A> a, DynamicVariable<? extends B> b,
+			BiFunction<? super A, ? super B, ? extends T> function){
+		return new DerivedDynamicVariable<T>(name,
+				() -> function.apply(a.get(), b.get()), a, b);
+	}
+
+	//The sum of the inputs; null inputs count as 0
+	public static DerivedDynamicVariable<Double> sum(String name,
+			Collection<? extends DynamicVariable<? extends Number>> inputs){
+		List<DynamicVariable<? extends Number>> list =
+				new ArrayList<DynamicVariable<? extends Number>>(inputs);
+		return new DerivedDynamicVariable<Double>(name, () -> {
+			double sum = 0;
+			for(DynamicVariable<? extends Number> input : list){
+				Number n = input.get();
+				if(n != null){
+					sum += n.doubleValue();
+				}
+			}
+			return sum;
+		}, list);
+	}
+
+	//Recomputes first if an input has changed; if the function throws, the
+	//variable stays dirty
+	@Override
+	public synchronized T get(){
+		if(dirty){
+			dirty = false;
+			boolean computed = false;
+			try{
+				value = function.get();
+				computed = true;
+			}
+			finally{
+				if(!computed){
+					dirty = true;
+				}
+			}
+		}
+		return value;
+	}
+
+	public List<DynamicVariable<?>> getInputs(){
+		return Collections.unmodifiableList(inputs);
+	}
+
+	public int getRank(){
+		return rank;
+	}
+
+	//Marks the variable and everything depending on it as dirty, and queues
+	//those with listeners to be propagated
+	protected void invalidate(){
+		dirty = true;
+		propagation.enqueue(this);
+		if(dependents.isEmpty()){
+			return;
+		}
+		Set<DerivedDynamicVariable<?>> seen = Collections.newSetFromMap(
+				new IdentityHashMap<DerivedDynamicVariable<?>, Boolean>());
+		Deque<DerivedDynamicVariable<?>> stack =
+				new ArrayDeque<DerivedDynamicVariable<?>>(dependents);
+		while(!stack.isEmpty()){
+			DerivedDynamicVariable<?> dependent = stack.pop();
+			if(seen.add(dependent)){
+				dependent.dirty = true;
+				propagation.enqueue(dependent);
+				stack.addAll(dependent.dependents);
+			}
+		}
+	}
+
+	//Called by the propagation in order of rank
+	protected void propagate(){
+		//Nobody would be notified, so the value stays uncomputed until read
+		if(listeners.isEmpty()){
+			return;
+		}
+		T old;
+		T current;
+		synchronized(this){
+			current = get();
+			old = published;
+			if(Objects.equals(old, current)){
+				return;
+			}
+			published = current;
+		}
+		fireChangeListeners(old, current, System.currentTimeMillis());
+	}
+
+	//Stops following the inputs; the variable keeps its last value
+	public void dispose(){
+		for(DynamicVariable<?> input : inputs){
+			if(input instanceof DerivedDynamicVariable){
+				((DerivedDynamicVariable<?>) input).dependents.remove(this);
+			}
+			else if(input instanceof AbstractDynamicVariable){
+				((AbstractDynamicVariable<?>) input).removeInvalidationListener(invalidator);
+			}
+			else{
+				input.removeChangeListener(inputListener);
+			}
+		}
+	}
+
+	//Variables that need to be recomputed, drained lowest rank first by at
+	//most one task at a time; a variable is only queued once however many
+	//of its inputs change before it is recomputed
+	//Batches hold the read lock of batching, and each variable is propagated
+	//holding its write lock, so no propagation overlaps a batch
+	//The drain runs on its own thread rather than a DispatchExecutor, whose
+	//overflow policy could drop it; if a function throws, the exception goes
+	//to the thread's handler and the rest of the queue is drained by a new task
+	protected static class Propagation implements Runnable{
+
+		protected ExecutorService executor = Executors.newSingleThreadExecutor(
+				new DispatchExecutor.DispatchThreadFactory("DynamicDebugger-derived"));
+		protected PriorityQueue<DerivedDynamicVariable<?>> queue =
+				new PriorityQueue<DerivedDynamicVariable<?>>(
+						Comparator.comparingInt(DerivedDynamicVariable::getRank));
+		protected boolean draining = false;
+		protected ReadWriteLock batching = new ReentrantReadWriteLock();
+
+		//Variables nobody listens to are only recomputed when read
+		public void enqueue(DerivedDynamicVariable<?> variable){
+			if(variable.listeners.isEmpty()){
+				return;
+			}
+			synchronized(this){
+				if(!variable.queued){
+					variable.queued = true;
+					queue.add(variable);
+				}
+				if(draining){
+					return;
+				}
+				draining = true;
+			}
+			executor.execute(this);
+		}
+
+		public void beginBatch(){
+			batching.readLock().lock();
+		}
+
+		public void endBatch(){
+			batching.readLock().unlock();
+		}
+
+		@Override
+		public void run(){
+			boolean finished = false;
+			try{
+				while(true){
+					batching.writeLock().lock();
+					try{
+						DerivedDynamicVariable<?> variable;
+						synchronized(this){
+							variable = queue.poll();
+							if(variable == null){
+								draining = false;
+								finished = true;
+								return;
+							}
+							variable.queued = false;
+						}
+						variable.propagate();
+					}
+					finally{
+						batching.writeLock().unlock();
+					}
+				}
+			}
+			finally{
+				if(!finished){
+					boolean more;
+					synchronized(this){
+						more = !queue.isEmpty();
+						draining = more;
+					}
+					if(more){
+						executor.execute(this);
+					}
+				}
+			}
+		}
+
+	}
+}
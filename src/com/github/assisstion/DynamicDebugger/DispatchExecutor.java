@@ -0,0 +1,362 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Runs listener and updatable callbacks on a bounded number of threads
+//The overflow policy decides what happens once the queue is full
+public class DispatchExecutor implements Executor{
+
+	public enum OverflowPolicy{
+		//Discard the oldest queued task to make room
+		DROP_OLDEST,
+		//Discard the task being submitted
+		DROP_NEWEST,
+		//Keep only the latest task for each source and target;
+		//tasks without a source drop the oldest task on overflow
+		//Every dispatch is coalesced, whether or not the queue is full, and
+		//looks its source and target up with a new DispatchKey
+		COALESCE,
+		//Make the submitting thread wait for room in the queue; a dispatch
+		//thread runs the task itself instead, before the tasks already
+		//queued, so its events may reach their target out of order
+		BLOCK
+	}
+
+	public static final int DEFAULT_THREADS = 4;
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	//One in this many dispatched tasks is timed from dispatch to start
+	public static final int LATENCY_SAMPLE_RATE = 64;
+
+	private static DispatchExecutor defaultExecutor = new DispatchExecutor();
+	//Set while a thread is running dispatched tasks outside of a DispatchThread
+	protected static final ThreadLocal<Boolean> dispatching = new ThreadLocal<Boolean>();
+
+	protected ThreadPoolExecutor executor;
+	protected OverflowPolicy policy;
+	protected LongAdder dropped = new LongAdder();
+	protected LongAdder dispatched = new LongAdder();
+	protected Log2Histogram latency = new Log2Histogram();
+	protected ConcurrentMap<DispatchKey, Runnable> coalesced =
+			new ConcurrentHashMap<DispatchKey, Runnable>();
+	//Dropped tasks that still have to run (see DroppableTask); run by the
+	//dispatch threads after their current task
+	protected Queue<Runnable> retries = new ConcurrentLinkedQueue<Runnable>();
+
+	public DispatchExecutor(){
+		this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+	}
+
+	public DispatchExecutor(int threads, int queueCapacity, OverflowPolicy policy){
+		this(threads, queueCapacity, policy, "DynamicDebugger-dispatch");
+	}
+
+	public DispatchExecutor(int threads, int queueCapacity,
+			OverflowPolicy policy, String name){
+		if(threads < 1 || queueCapacity < 1){
+			throw new IllegalArgumentException(
+					"threads and queueCapacity must be positive");
+		}
+		this.policy = Objects.requireNonNull(policy);
+		executor = new ThreadPoolExecutor(threads, threads, 1000,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+				new DispatchThreadFactory(name), this.new OverflowHandler()){
+
+			@Override
+			protected void afterExecute(Runnable r, Throwable t){
+				runRetries();
+			}
+
+		};
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	//For subclasses that do not run tasks on a ThreadPoolExecutor
+	protected DispatchExecutor(OverflowPolicy policy){
+		this.policy = Objects.requireNonNull(policy);
+	}
+
+	//Shared by every variable and Debugger that was not given its own executor
+	public static DispatchExecutor getDefault(){
+		return defaultExecutor;
+	}
+
+	public static void setDefault(DispatchExecutor executor){
+		defaultExecutor = Objects.requireNonNull(executor);
+	}
+
+	@Override
+	public void execute(Runnable task){
+		executor.execute(task);
+	}
+
+	//Dispatches a task from source (e.g. a variable) to target (e.g. a listener)
+	//Under COALESCE, a task that has not started yet is replaced by a newer
+	//task for the same source and target
+	public void dispatch(Object source, Object target, Runnable task){
+		task = instrument(task);
+		if(policy != OverflowPolicy.COALESCE){
+			executor.execute(task);
+			return;
+		}
+		DispatchKey key = new DispatchKey(source, target);
+		if(coalesced.put(key, task) == null){
+			executor.execute(this.new CoalescedTask(key));
+		}
+	}
+
+	public OverflowPolicy getPolicy(){
+		return policy;
+	}
+
+	public long getDroppedCount(){
+		return dropped.sum();
+	}
+
+	public long getDispatchedCount(){
+		return dispatched.sum();
+	}
+
+	//Time from dispatch until the task starts running, in nanoseconds, of
+	//a sample of the dispatched tasks
+	public Log2Histogram getDispatchLatency(){
+		return latency;
+	}
+
+	//Counts the task and wraps a sample of tasks to time them; coalesced
+	//tasks are timed from the dispatch that was finally run
+	protected Runnable instrument(Runnable task){
+		dispatched.increment();
+		if(ThreadLocalRandom.current().nextInt(LATENCY_SAMPLE_RATE) != 0){
+			return task;
+		}
+		return this.new TimedTask(task);
+	}
+
+	public int getQueueSize(){
+		return executor.getQueue().size();
+	}
+
+	public int getMaximumThreads(){
+		return executor.getMaximumPoolSize();
+	}
+
+	public ExecutorService getExecutorService(){
+		return executor;
+	}
+
+	public void shutdown(){
+		executor.shutdown();
+	}
+
+	//Dispatched tasks often dispatch more tasks (e.g. a listener pushing to
+	//the Debugger's updatables); such threads must never block on a full
+	//queue, since they may be the ones that would empty it
+	protected static boolean isDispatchThread(){
+		return Thread.currentThread() instanceof DispatchThread ||
+				Boolean.TRUE.equals(dispatching.get());
+	}
+
+	protected void drop(Runnable task){
+		if(task instanceof TimedTask){
+			task = ((TimedTask) task).task;
+		}
+		if(task instanceof DroppableTask && ((DroppableTask) task).dropped()){
+			retries.add(task);
+			return;
+		}
+		dropped.increment();
+	}
+
+	//A dropped task is only retried when the queue was full, so some
+	//dispatch thread is still busy and will run it when it finishes
+	protected void runRetries(){
+		Runnable task;
+		while((task = retries.poll()) != null){
+			runInline(task);
+		}
+	}
+
+	//A task that stands for work still pending elsewhere (e.g. a drain of
+	//coalesced changes), which must be told when the queue has no room for
+	//it instead of being dropped silently
+	//If dropped returns true, the task is run anyway once a dispatch thread
+	//is free, without taking a place in the queue, and it is not counted as
+	//dropped; such tasks must be few (e.g. at most one per variable)
+	//dropped is called on the thread that overflowed the queue, and must not
+	//submit tasks itself
+	public interface DroppableTask extends Runnable{
+
+		public boolean dropped();
+
+	}
+
+	//Exceptions go to the thread's handler, as if the task had been queued,
+	//instead of to the code that dispatched it
+	protected static void runInline(Runnable task){
+		try{
+			task.run();
+		}
+		catch(RuntimeException | Error e){
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+	}
+
+	protected class OverflowHandler implements RejectedExecutionHandler{
+
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor e){
+			if(e.isShutdown()){
+				throw new RejectedExecutionException("Dispatch executor is shut down");
+			}
+			BlockingQueue<Runnable> queue = e.getQueue();
+			switch(policy){
+				case DROP_NEWEST:
+					drop(r);
+					break;
+				case BLOCK:
+					//Waiting could deadlock if every dispatch thread did it;
+					//running the task now overtakes the queued tasks instead
+					if(isDispatchThread()){
+						runInline(r);
+						break;
+					}
+					try{
+						queue.put(r);
+					}
+					catch(InterruptedException ie){
+						Thread.currentThread().interrupt();
+						drop(r);
+					}
+					break;
+				case DROP_OLDEST:
+				case COALESCE:
+				default:
+					Runnable oldest = queue.poll();
+					if(oldest != null){
+						drop(oldest);
+					}
+					if(!queue.offer(r)){
+						drop(r);
+					}
+					break;
+			}
+		}
+
+	}
+
+	//Wraps a task that is timed from dispatch to start; drop unwraps it, so
+	//the task is still told when it is dropped
+	protected class TimedTask implements Runnable{
+
+		protected Runnable task;
+		protected long start = System.nanoTime();
+
+		public TimedTask(Runnable task){
+			this.task = task;
+		}
+
+		@Override
+		public void run(){
+			latency.record(System.nanoTime() - start);
+			task.run();
+		}
+
+	}
+
+	protected class CoalescedTask implements DroppableTask{
+
+		protected DispatchKey key;
+
+		public CoalescedTask(DispatchKey key){
+			this.key = key;
+		}
+
+		@Override
+		public void run(){
+			Runnable latest = coalesced.remove(key);
+			if(latest != null){
+				latest.run();
+			}
+		}
+
+		//The latest task for the key stays in the map, and is run when this
+		//task is retried
+		@Override
+		public boolean dropped(){
+			return true;
+		}
+
+	}
+
+	//Sources and targets are compared by identity, so mutable objects can be
+	//used; equal but distinct objects (e.g. two equal Strings) are different
+	//keys
+	protected static class DispatchKey{
+
+		protected Object source;
+		protected Object target;
+
+		public DispatchKey(Object source, Object target){
+			this.source = source;
+			this.target = target;
+		}
+
+		@Override
+		public int hashCode(){
+			return 31 * System.identityHashCode(source) + System.identityHashCode(target);
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof DispatchKey)){
+				return false;
+			}
+			DispatchKey other = (DispatchKey) o;
+			return source == other.source && target == other.target;
+		}
+
+	}
+
+	protected static class DispatchThreadFactory implements ThreadFactory{
+
+		protected String name;
+		protected AtomicInteger count = new AtomicInteger();
+
+		public DispatchThreadFactory(String name){
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r){
+			Thread thread = new DispatchThread(r, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	protected static class DispatchThread extends Thread{
+
+		public DispatchThread(Runnable r, String name){
+			super(r, name);
+		}
+
+	}
+}
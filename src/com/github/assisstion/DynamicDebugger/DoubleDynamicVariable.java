@@ -0,0 +1,59 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.UnaryOperator;
+
+//Unboxed double variable; the boxed get()/set() are only for compatibility
+//with code that expects a MutableDynamicVariable<Double>
+public interface DoubleDynamicVariable extends MutableDynamicVariable<Double>, DoubleSupplier{
+	boolean addDoubleChangeListener(DoubleVariableListener vl);
+	boolean removeDoubleChangeListener(DoubleVariableListener vl);
+	void set(double value);
+	@Override
+	double getAsDouble();
+	//Compares the raw bits, so NaN matches NaN but 0.0 does not match -0.0
+	boolean compareAndSet(double expect, double update);
+	double getAndSet(double value);
+	double addAndGet(double delta);
+	double updateAndGetAsDouble(DoubleUnaryOperator updateFunction);
+	double accumulateAndGetAsDouble(double x, DoubleBinaryOperator accumulatorFunction);
+
+	@Override
+	default Double get(){
+		return getAsDouble();
+	}
+
+	@Override
+	default void set(Double t){
+		set(t.doubleValue());
+	}
+
+	//Unlike MutableDynamicVariable.compareAndSet, the values are compared (by their raw bits),
+	//not the boxes, since the variable holds no box to compare; null cannot
+	//be held, so it is rejected
+	@Override
+	default boolean compareAndSet(Double expect, Double update){
+		Objects.requireNonNull(expect, "expect");
+		Objects.requireNonNull(update, "update");
+		return compareAndSet(expect.doubleValue(), update.doubleValue());
+	}
+
+	@Override
+	default Double getAndSet(Double t){
+		return getAndSet(t.doubleValue());
+	}
+
+	@Override
+	default Double updateAndGet(UnaryOperator<Double> updateFunction){
+		return updateAndGetAsDouble((v) -> updateFunction.apply(v));
+	}
+
+	@Override
+	default Double accumulateAndGet(Double x, BinaryOperator<Double> accumulatorFunction){
+		return accumulateAndGetAsDouble(x, (a, b) -> accumulatorFunction.apply(a, b));
+	}
+}
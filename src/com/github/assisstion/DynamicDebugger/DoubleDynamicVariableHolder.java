@@ -0,0 +1,217 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+//Stores the value unboxed; boxed listeners are still supported,
+//but the value is only boxed if at least one of them is registered
+//Non-blocking, like DynamicVariableHolder; the value is kept as its raw bits
+public class DoubleDynamicVariableHolder extends AbstractDynamicVariable<Double>
+implements DoubleDynamicVariable{
+
+	protected List<DoubleVariableListener> doubleListeners =
+			new CopyOnWriteArrayList<DoubleVariableListener>();
+	private static final AtomicLongFieldUpdater<DoubleDynamicVariableHolder> BITS =
+			AtomicLongFieldUpdater.newUpdater(DoubleDynamicVariableHolder.class, "bits");
+
+	protected volatile long bits;
+
+	protected boolean doublePending = false;
+	protected double pendingDoubleOldValue;
+	protected long pendingDoubleTimeStamp;
+
+	public DoubleDynamicVariableHolder(){
+		this(null, 0.0);
+	}
+
+	public DoubleDynamicVariableHolder(double value){
+		this(null, value);
+	}
+
+	public DoubleDynamicVariableHolder(String name){
+		this(name, 0.0);
+	}
+
+	public DoubleDynamicVariableHolder(String name, double value){
+		super(name);
+		bits = Double.doubleToRawLongBits(value);
+	}
+
+	@Override
+	public void set(double value){
+		getAndSet(value);
+	}
+
+	@Override
+	public double getAsDouble(){
+		return Double.longBitsToDouble(bits);
+	}
+
+	@Override
+	public double getAndSet(double value){
+		long time = System.currentTimeMillis();
+		double old = Double.longBitsToDouble(
+				BITS.getAndSet(this, Double.doubleToRawLongBits(value)));
+		fireDoubleChangeListeners(old, value, time);
+		return old;
+	}
+
+	@Override
+	public boolean compareAndSet(double expect, double update){
+		long time = System.currentTimeMillis();
+		if(BITS.compareAndSet(this, Double.doubleToRawLongBits(expect),
+				Double.doubleToRawLongBits(update))){
+			fireDoubleChangeListeners(expect, update, time);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public double addAndGet(double delta){
+		return accumulateAndGetAsDouble(delta, (a, b) -> a + b);
+	}
+
+	@Override
+	public double updateAndGetAsDouble(DoubleUnaryOperator updateFunction){
+		long time = System.currentTimeMillis();
+		long prev;
+		double next;
+		do{
+			prev = bits;
+			next = updateFunction.applyAsDouble(Double.longBitsToDouble(prev));
+		}
+		while(!BITS.compareAndSet(this, prev, Double.doubleToRawLongBits(next)));
+		fireDoubleChangeListeners(Double.longBitsToDouble(prev), next, time);
+		return next;
+	}
+
+	@Override
+	public double accumulateAndGetAsDouble(double x, DoubleBinaryOperator accumulatorFunction){
+		long time = System.currentTimeMillis();
+		long prev;
+		double next;
+		do{
+			prev = bits;
+			next = accumulatorFunction.applyAsDouble(Double.longBitsToDouble(prev), x);
+		}
+		while(!BITS.compareAndSet(this, prev, Double.doubleToRawLongBits(next)));
+		fireDoubleChangeListeners(Double.longBitsToDouble(prev), next, time);
+		return next;
+	}
+
+	@Override
+	public boolean addDoubleChangeListener(DoubleVariableListener vl){
+		return doubleListeners.add(vl);
+	}
+
+	@Override
+	public boolean removeDoubleChangeListener(DoubleVariableListener vl){
+		return doubleListeners.remove(vl);
+	}
+
+	@Override
+	public void clearChangeListeners(){
+		super.clearChangeListeners();
+		doubleListeners.clear();
+	}
+
+	protected void fireDoubleChangeListeners(double oldValue, double newValue, long timeStamp){
+		//The value is only boxed for boxed listeners; the change is counted once
+		if(listeners.isEmpty()){
+			changed();
+		}
+		else{
+			fireChangeListeners(oldValue, newValue, timeStamp);
+		}
+		if(coalescing){
+			if(doubleListeners.isEmpty()){
+				return;
+			}
+			synchronized(pendingLock){
+				if(!doublePending){
+					doublePending = true;
+					pendingDoubleOldValue = oldValue;
+				}
+				pendingDoubleTimeStamp = timeStamp;
+			}
+			scheduleDrain();
+			return;
+		}
+		if(doubleListeners.isEmpty()){
+			return;
+		}
+		//The holder itself is the target; the listener list changes, so it
+		//cannot identify the primitive listeners
+		getDispatcher().dispatch(this, this, this.new DoubleChange(
+				oldValue, newValue, timeStamp));
+	}
+
+	@Override
+	protected boolean hasPendingChanges(){
+		return super.hasPendingChanges() || doublePending;
+	}
+
+	//Coalesced primitive changes always deliver the current value
+	@Override
+	protected void drainPendingChanges(){
+		super.drainPendingChanges();
+		double oldValue;
+		double newValue;
+		long timeStamp;
+		synchronized(pendingLock){
+			if(!doublePending){
+				return;
+			}
+			doublePending = false;
+			oldValue = pendingDoubleOldValue;
+			newValue = getAsDouble();
+			timeStamp = pendingDoubleTimeStamp;
+		}
+		DoubleVariableChangeEvent e = new DoubleVariableChangeEvent(
+				oldValue, newValue, timeStamp, this);
+		for(DoubleVariableListener vl : doubleListeners){
+			vl.changeOccured(e);
+		}
+	}
+
+	//A change is one object, both the event and the task that gives it to
+	//every double listener; a listener that throws does not keep it from the
+	//others
+	protected class DoubleChange extends DoubleVariableChangeEvent implements Runnable{
+
+		public DoubleChange(double oldValue, double newValue, long timeStamp){
+			super(oldValue, newValue, timeStamp, DoubleDynamicVariableHolder.this);
+		}
+
+		@Override
+		public void run(){
+			RuntimeException failure = null;
+			for(DoubleVariableListener vl : doubleListeners){
+				try{
+					vl.changeOccured(this);
+				}
+				catch(RuntimeException e){
+					if(failure == null){
+						failure = e;
+					}
+					else{
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			if(failure != null){
+				throw failure;
+			}
+		}
+
+	}
+
+	public static DoubleDynamicVariableHolder valueOf(String name, double value){
+		return new DoubleDynamicVariableHolder(name, value);
+	}
+
+}
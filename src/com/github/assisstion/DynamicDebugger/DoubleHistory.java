@@ -0,0 +1,47 @@
+package com.github.assisstion.DynamicDebugger;
+
+//History of a double variable
+public class DoubleHistory extends PrimitiveHistory<Double> implements DoubleVariableListener{
+
+	public DoubleHistory(int capacity){
+		this(capacity, false);
+	}
+
+	public DoubleHistory(int capacity, boolean offHeap){
+		super(capacity, offHeap);
+	}
+
+	public void record(long timeStamp, double value){
+		recordBits(timeStamp, Double.doubleToRawLongBits(value));
+	}
+
+	public double getDouble(int index){
+		return Double.longBitsToDouble(getBits(index));
+	}
+
+	public synchronized int copyLast(long[] timeStamps, double[] values){
+		int n = Math.min(values.length, size());
+		if(timeStamps != null){
+			n = Math.min(n, timeStamps.length);
+		}
+		int start = size() - n;
+		for(int i = 0; i < n; i++){
+			int slot = slot(start + i);
+			if(timeStamps != null){
+				timeStamps[i] = timeStampAt(slot);
+			}
+			values[i] = Double.longBitsToDouble(bitsAt(slot));
+		}
+		return n;
+	}
+
+	@Override
+	public void changeOccured(DoubleVariableChangeEvent e){
+		record(e.getTimeStamp(), e.getNewValue());
+	}
+
+	@Override
+	protected Double valueAt(int slot){
+		return Double.longBitsToDouble(bitsAt(slot));
+	}
+}
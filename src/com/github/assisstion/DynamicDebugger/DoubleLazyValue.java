@@ -0,0 +1,39 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.function.Function;
+
+//The new value of a double variable, kept unboxed
+//Without a formatter the text is Double.toString of the value, as for a
+//boxed value; a formatter is given the boxed value, which is only boxed
+//when the text is first needed
+public class DoubleLazyValue extends LazyValue{
+
+	protected double doubleValue;
+
+	public DoubleLazyValue(double value){
+		super(null);
+		doubleValue = value;
+	}
+
+	public DoubleLazyValue(double value, Function<Object, String> formatter){
+		super(formatter);
+		doubleValue = value;
+	}
+
+	public double getDoubleValue(){
+		return doubleValue;
+	}
+
+	@Override
+	public Object getValue(){
+		return doubleValue;
+	}
+
+	@Override
+	protected String format(){
+		if(formatter == null){
+			return Double.toString(doubleValue);
+		}
+		return String.valueOf(formatter.apply(doubleValue));
+	}
+}
@@ -0,0 +1,32 @@
+package com.github.assisstion.DynamicDebugger;
+
+public class DoubleVariableChangeEvent{
+	protected double oldValue;
+	protected double newValue;
+	protected long timeStamp;
+	protected DoubleDynamicVariable source;
+
+	public DoubleVariableChangeEvent(double oldValue, double newValue, long timeStamp,
+			DoubleDynamicVariable source){
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+		this.timeStamp = timeStamp;
+		this.source = source;
+	}
+
+	public double getOldValue(){
+		return oldValue;
+	}
+
+	public double getNewValue(){
+		return newValue;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public DoubleDynamicVariable getSource(){
+		return source;
+	}
+}
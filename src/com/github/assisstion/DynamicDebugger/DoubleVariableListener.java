@@ -0,0 +1,6 @@
+package com.github.assisstion.DynamicDebugger;
+
+//Primitive counterpart of VariableListener for DoubleDynamicVariable
+public interface DoubleVariableListener{
+	void changeOccured(DoubleVariableChangeEvent e);
+}
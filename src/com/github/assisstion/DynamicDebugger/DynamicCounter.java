@@ -0,0 +1,39 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//Counts on a LongAdder, so threads counting at once do not contend
+//If windowed, shows the count of each sampling tick
+public class DynamicCounter extends SampledDynamicVariable<Long>{
+
+	protected LongAdder count = new LongAdder();
+
+	public DynamicCounter(){
+		this(null);
+	}
+
+	public DynamicCounter(String name){
+		super(name);
+	}
+
+	public void increment(){
+		count.increment();
+	}
+
+	public void decrement(){
+		count.decrement();
+	}
+
+	public void add(long amount){
+		count.add(amount);
+	}
+
+	public void reset(){
+		count.reset();
+	}
+
+	@Override
+	protected Long aggregate(boolean reset){
+		return reset ? count.sumThenReset() : count.sum();
+	}
+}
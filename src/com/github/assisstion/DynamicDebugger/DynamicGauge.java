@@ -0,0 +1,54 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.atomic.LongAccumulator;
+
+//Keeps the largest (or smallest) value recorded, on a LongAccumulator so
+//that threads recording at once do not contend
+//Null until a value is recorded; if windowed, shows the extreme of each
+//sampling tick
+public class DynamicGauge extends SampledDynamicVariable<Long>{
+
+	public enum Mode{
+		MAX,
+		MIN
+	}
+
+	protected Mode mode;
+	protected long identity;
+	protected LongAccumulator accumulator;
+
+	public DynamicGauge(Mode mode){
+		this(null, mode);
+	}
+
+	public DynamicGauge(String name, Mode mode){
+		super(name);
+		this.mode = mode;
+		if(mode == Mode.MAX){
+			identity = Long.MIN_VALUE;
+			accumulator = new LongAccumulator(Math::max, identity);
+		}
+		else{
+			identity = Long.MAX_VALUE;
+			accumulator = new LongAccumulator(Math::min, identity);
+		}
+	}
+
+	public void record(long value){
+		accumulator.accumulate(value);
+	}
+
+	public Mode getMode(){
+		return mode;
+	}
+
+	public void reset(){
+		accumulator.reset();
+	}
+
+	@Override
+	protected Long aggregate(boolean reset){
+		long value = reset ? accumulator.getThenReset() : accumulator.get();
+		return value == identity ? null : value;
+	}
+}
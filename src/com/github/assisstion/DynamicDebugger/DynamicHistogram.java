@@ -0,0 +1,40 @@
+package com.github.assisstion.DynamicDebugger;
+
+//Records values (such as durations in nanoseconds) into a Log2Histogram
+//without locking, and shows their summary
+//If windowed, shows the summary of each sampling tick; values recorded
+//while a window is being closed may be lost
+public class DynamicHistogram extends SampledDynamicVariable<Log2Histogram.Summary>{
+
+	protected Log2Histogram histogram = new Log2Histogram();
+
+	public DynamicHistogram(){
+		this(null);
+	}
+
+	public DynamicHistogram(String name){
+		super(name);
+	}
+
+	public void record(long value){
+		histogram.record(value);
+	}
+
+	//Records the time since start, a value of System.nanoTime()
+	public void recordSince(long start){
+		histogram.record(System.nanoTime() - start);
+	}
+
+	public void reset(){
+		histogram.reset();
+	}
+
+	@Override
+	protected Log2Histogram.Summary aggregate(boolean reset){
+		Log2Histogram.Summary summary = histogram.summarize();
+		if(reset){
+			histogram.reset();
+		}
+		return summary;
+	}
+}
@@ -1,10 +1,18 @@
 package com.github.assisstion.DynamicDebugger;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
 
+//Non-blocking; compareAndSet compares by identity, like AtomicReference
 public class DynamicVariableHolder<T> extends AbstractDynamicVariable<T>
 implements MutableDynamicVariable<T>{
 
-	protected T value;
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<DynamicVariableHolder, Object> VALUE =
+	AtomicReferenceFieldUpdater.newUpdater(DynamicVariableHolder.class, Object.class, "value");
+
+	protected volatile T value;
 
 	public DynamicVariableHolder(){
 		this(null, null);
@@ -24,15 +32,64 @@ implements MutableDynamicVariable<T>{
 	}
 
 	@Override
-	public synchronized void set(T t){
+	public void set(T t){
+		getAndSet(t);
+	}
+
+	@Override
+	public T get(){
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T getAndSet(T t){
 		long time = System.currentTimeMillis();
-		T old = value;
-		value = t;
+		T old = (T) VALUE.getAndSet(this, t);
 		fireChangeListeners(old, t, time);
+		return old;
+	}
+
+	@Override
+	public boolean compareAndSet(T expect, T update){
+		long time = System.currentTimeMillis();
+		if(VALUE.compareAndSet(this, expect, update)){
+			fireChangeListeners(expect, update, time);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public T updateAndGet(UnaryOperator<T> updateFunction){
+		long time = System.currentTimeMillis();
+		T prev;
+		T next;
+		do{
+			prev = value;
+			next = updateFunction.apply(prev);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireChangeListeners(prev, next, time);
+		return next;
+	}
+
+	@Override
+	public T accumulateAndGet(T x, BinaryOperator<T> accumulatorFunction){
+		long time = System.currentTimeMillis();
+		T prev;
+		T next;
+		do{
+			prev = value;
+			next = accumulatorFunction.apply(prev, x);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireChangeListeners(prev, next, time);
+		return next;
 	}
 
 	@Override
-	public synchronized T get(){
+	protected T latestValue(T pendingNewValue){
 		return value;
 	}
 
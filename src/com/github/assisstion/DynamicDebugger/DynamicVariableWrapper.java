@@ -0,0 +1,42 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+//A variable that follows another variable through its change events and
+//passes on a reduced stream of them; attach the wrapper to a Debugger
+//instead of the source, so that the Debugger only receives the reduced
+//stream
+//By default the wrapper has the name of its source
+//Subclasses call start at the end of their constructors
+public abstract class DynamicVariableWrapper<S, T> extends AbstractDynamicVariable<T>{
+
+	//Runs the timed work of every wrapper, such as trailing events
+	protected static final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(
+					new DispatchExecutor.DispatchThreadFactory("DynamicDebugger-wrapper"));
+
+	protected DynamicVariable<? extends S> source;
+	protected VariableListener<S> sourceListener = this::sourceChanged;
+
+	public DynamicVariableWrapper(String name, DynamicVariable<? extends S> source){
+		super(name == null ? source.getName() : name);
+		this.source = Objects.requireNonNull(source);
+	}
+
+	protected void start(){
+		source.addChangeListener(sourceListener);
+	}
+
+	protected abstract void sourceChanged(VariableChangeEvent<? extends S> e);
+
+	public DynamicVariable<? extends S> getSource(){
+		return source;
+	}
+
+	//Stops following the source
+	public void dispose(){
+		source.removeChangeListener(sourceListener);
+	}
+}
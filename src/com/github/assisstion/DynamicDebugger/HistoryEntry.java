@@ -0,0 +1,24 @@
+package com.github.assisstion.DynamicDebugger;
+
+public class HistoryEntry<T>{
+	protected long timeStamp;
+	protected T value;
+
+	public HistoryEntry(long timeStamp, T value){
+		this.timeStamp = timeStamp;
+		this.value = value;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public T getValue(){
+		return value;
+	}
+
+	@Override
+	public String toString(){
+		return timeStamp + " " + value;
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.UnaryOperator;
+
+//Unboxed int variable; the boxed get()/set() are only for compatibility
+//with code that expects a MutableDynamicVariable<Integer>
+public interface IntDynamicVariable extends MutableDynamicVariable<Integer>, IntSupplier{
+	boolean addIntChangeListener(IntVariableListener vl);
+	boolean removeIntChangeListener(IntVariableListener vl);
+	void set(int value);
+	@Override
+	int getAsInt();
+	boolean compareAndSet(int expect, int update);
+	int getAndSet(int value);
+	int addAndGet(int delta);
+	int updateAndGetAsInt(IntUnaryOperator updateFunction);
+	int accumulateAndGetAsInt(int x, IntBinaryOperator accumulatorFunction);
+
+	default int incrementAndGet(){
+		return addAndGet(1);
+	}
+
+	default int decrementAndGet(){
+		return addAndGet(-1);
+	}
+
+	@Override
+	default Integer get(){
+		return getAsInt();
+	}
+
+	@Override
+	default void set(Integer t){
+		set(t.intValue());
+	}
+
+	//Unlike MutableDynamicVariable.compareAndSet, the values are compared,
+	//not the boxes, since the variable holds no box to compare; null cannot
+	//be held, so it is rejected
+	@Override
+	default boolean compareAndSet(Integer expect, Integer update){
+		Objects.requireNonNull(expect, "expect");
+		Objects.requireNonNull(update, "update");
+		return compareAndSet(expect.intValue(), update.intValue());
+	}
+
+	@Override
+	default Integer getAndSet(Integer t){
+		return getAndSet(t.intValue());
+	}
+
+	@Override
+	default Integer updateAndGet(UnaryOperator<Integer> updateFunction){
+		return updateAndGetAsInt((v) -> updateFunction.apply(v));
+	}
+
+	@Override
+	default Integer accumulateAndGet(Integer x, BinaryOperator<Integer> accumulatorFunction){
+		return accumulateAndGetAsInt(x, (a, b) -> accumulatorFunction.apply(a, b));
+	}
+}
@@ -0,0 +1,218 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+//Stores the value unboxed; boxed listeners are still supported,
+//but the value is only boxed if at least one of them is registered
+//Non-blocking, like DynamicVariableHolder
+public class IntDynamicVariableHolder extends AbstractDynamicVariable<Integer>
+implements IntDynamicVariable{
+
+	protected List<IntVariableListener> intListeners =
+			new CopyOnWriteArrayList<IntVariableListener>();
+	private static final AtomicIntegerFieldUpdater<IntDynamicVariableHolder> VALUE =
+			AtomicIntegerFieldUpdater.newUpdater(IntDynamicVariableHolder.class, "value");
+
+	protected volatile int value;
+
+	protected boolean intPending = false;
+	protected int pendingIntOldValue;
+	protected long pendingIntTimeStamp;
+
+	public IntDynamicVariableHolder(){
+		this(null, 0);
+	}
+
+	public IntDynamicVariableHolder(int value){
+		this(null, value);
+	}
+
+	public IntDynamicVariableHolder(String name){
+		this(name, 0);
+	}
+
+	public IntDynamicVariableHolder(String name, int value){
+		super(name);
+		this.value = value;
+	}
+
+	@Override
+	public void set(int value){
+		getAndSet(value);
+	}
+
+	@Override
+	public int getAsInt(){
+		return value;
+	}
+
+	@Override
+	public int getAndSet(int value){
+		long time = System.currentTimeMillis();
+		int old = VALUE.getAndSet(this, value);
+		fireIntChangeListeners(old, value, time);
+		return old;
+	}
+
+	@Override
+	public boolean compareAndSet(int expect, int update){
+		long time = System.currentTimeMillis();
+		if(VALUE.compareAndSet(this, expect, update)){
+			fireIntChangeListeners(expect, update, time);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int addAndGet(int delta){
+		long time = System.currentTimeMillis();
+		int old = VALUE.getAndAdd(this, delta);
+		fireIntChangeListeners(old, old + delta, time);
+		return old + delta;
+	}
+
+	@Override
+	public int updateAndGetAsInt(IntUnaryOperator updateFunction){
+		long time = System.currentTimeMillis();
+		int prev;
+		int next;
+		do{
+			prev = value;
+			next = updateFunction.applyAsInt(prev);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireIntChangeListeners(prev, next, time);
+		return next;
+	}
+
+	@Override
+	public int accumulateAndGetAsInt(int x, IntBinaryOperator accumulatorFunction){
+		long time = System.currentTimeMillis();
+		int prev;
+		int next;
+		do{
+			prev = value;
+			next = accumulatorFunction.applyAsInt(prev, x);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireIntChangeListeners(prev, next, time);
+		return next;
+	}
+
+	@Override
+	public boolean addIntChangeListener(IntVariableListener vl){
+		return intListeners.add(vl);
+	}
+
+	@Override
+	public boolean removeIntChangeListener(IntVariableListener vl){
+		return intListeners.remove(vl);
+	}
+
+	@Override
+	public void clearChangeListeners(){
+		super.clearChangeListeners();
+		intListeners.clear();
+	}
+
+	protected void fireIntChangeListeners(int oldValue, int newValue, long timeStamp){
+		//The value is only boxed for boxed listeners; the change is counted once
+		if(listeners.isEmpty()){
+			changed();
+		}
+		else{
+			fireChangeListeners(oldValue, newValue, timeStamp);
+		}
+		if(coalescing){
+			if(intListeners.isEmpty()){
+				return;
+			}
+			synchronized(pendingLock){
+				if(!intPending){
+					intPending = true;
+					pendingIntOldValue = oldValue;
+				}
+				pendingIntTimeStamp = timeStamp;
+			}
+			scheduleDrain();
+			return;
+		}
+		if(intListeners.isEmpty()){
+			return;
+		}
+		//The holder itself is the target; the listener list changes, so it
+		//cannot identify the primitive listeners
+		getDispatcher().dispatch(this, this, this.new IntChange(
+				oldValue, newValue, timeStamp));
+	}
+
+	@Override
+	protected boolean hasPendingChanges(){
+		return super.hasPendingChanges() || intPending;
+	}
+
+	//Coalesced primitive changes always deliver the current value
+	@Override
+	protected void drainPendingChanges(){
+		super.drainPendingChanges();
+		int oldValue;
+		int newValue;
+		long timeStamp;
+		synchronized(pendingLock){
+			if(!intPending){
+				return;
+			}
+			intPending = false;
+			oldValue = pendingIntOldValue;
+			newValue = value;
+			timeStamp = pendingIntTimeStamp;
+		}
+		IntVariableChangeEvent e = new IntVariableChangeEvent(
+				oldValue, newValue, timeStamp, this);
+		for(IntVariableListener vl : intListeners){
+			vl.changeOccured(e);
+		}
+	}
+
+	//A change is one object, both the event and the task that gives it to
+	//every int listener; a listener that throws does not keep it from the
+	//others
+	protected class IntChange extends IntVariableChangeEvent implements Runnable{
+
+		public IntChange(int oldValue, int newValue, long timeStamp){
+			super(oldValue, newValue, timeStamp, IntDynamicVariableHolder.this);
+		}
+
+		@Override
+		public void run(){
+			RuntimeException failure = null;
+			for(IntVariableListener vl : intListeners){
+				try{
+					vl.changeOccured(this);
+				}
+				catch(RuntimeException e){
+					if(failure == null){
+						failure = e;
+					}
+					else{
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			if(failure != null){
+				throw failure;
+			}
+		}
+
+	}
+
+	public static IntDynamicVariableHolder valueOf(String name, int value){
+		return new IntDynamicVariableHolder(name, value);
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.function.Function;
+
+//The new value of a int variable, kept unboxed
+//Without a formatter the text is Integer.toString of the value, as for a
+//boxed value; a formatter is given the boxed value, which is only boxed
+//when the text is first needed
+public class IntLazyValue extends LazyValue{
+
+	protected int intValue;
+
+	public IntLazyValue(int value){
+		super(null);
+		intValue = value;
+	}
+
+	public IntLazyValue(int value, Function<Object, String> formatter){
+		super(formatter);
+		intValue = value;
+	}
+
+	public int getIntValue(){
+		return intValue;
+	}
+
+	@Override
+	public Object getValue(){
+		return intValue;
+	}
+
+	@Override
+	protected String format(){
+		if(formatter == null){
+			return Integer.toString(intValue);
+		}
+		return String.valueOf(formatter.apply(intValue));
+	}
+}
@@ -0,0 +1,32 @@
+package com.github.assisstion.DynamicDebugger;
+
+public class IntVariableChangeEvent{
+	protected int oldValue;
+	protected int newValue;
+	protected long timeStamp;
+	protected IntDynamicVariable source;
+
+	public IntVariableChangeEvent(int oldValue, int newValue, long timeStamp,
+			IntDynamicVariable source){
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+		this.timeStamp = timeStamp;
+		this.source = source;
+	}
+
+	public int getOldValue(){
+		return oldValue;
+	}
+
+	public int getNewValue(){
+		return newValue;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public IntDynamicVariable getSource(){
+		return source;
+	}
+}
@@ -0,0 +1,6 @@
+package com.github.assisstion.DynamicDebugger;
+
+//Primitive counterpart of VariableListener for IntDynamicVariable
+public interface IntVariableListener{
+	void changeOccured(IntVariableChangeEvent e);
+}
@@ -0,0 +1,355 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Attribute;
+import javax.management.AttributeChangeNotification;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Shows a Debugger as an MBean: every variable and supplier is a read-only
+//String attribute, and pause, resume and resumeExecution are operations
+//Attributes are read from the latest values the Debugger pushed to the
+//bridge, so reading them never calls a supplier, and values of variables
+//are only formatted when read
+//Changes of variables are sent as AttributeChangeNotifications, at most one
+//per variable every notificationInterval milliseconds; changes in between
+//are not sent
+public class JmxBridge extends NotificationBroadcasterSupport
+implements DynamicMBean, DebuggerUpdatable, Closeable{
+
+	public static final String DOMAIN = "com.github.assisstion.DynamicDebugger";
+	public static final long DEFAULT_NOTIFICATION_INTERVAL = 1000;
+	public static final String STATE_NOTIFICATION = "dynamicdebugger.state";
+
+	protected Debugger<?> debugger;
+	protected long notificationNanos;
+	protected MBeanServer server;
+	protected ObjectName objectName;
+	//Values are Strings or LazyValues
+	protected Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+	//Guarded by itself
+	protected Set<String> supplierKeys = new TreeSet<String>();
+	//When the last notification for each variable was sent
+	protected Map<String, Long> lastNotified = new ConcurrentHashMap<String, Long>();
+	protected AtomicLong sequence = new AtomicLong();
+	//Registrations of each notification listener; guarded by itself
+	protected Map<NotificationListener, Integer> registrations =
+			new HashMap<NotificationListener, Integer>();
+	protected volatile boolean listened = false;
+	//Rebuilt when a key is added or removed
+	protected volatile MBeanInfo info;
+	protected volatile String executionState = "Running";
+
+	public JmxBridge(Debugger<?> debugger){
+		this(debugger, DEFAULT_NOTIFICATION_INTERVAL);
+	}
+
+	public JmxBridge(Debugger<?> debugger, long notificationInterval){
+		this.debugger = debugger;
+		notificationNanos = notificationInterval * 1000000;
+	}
+
+	//Registers a bridge for the Debugger with the platform MBeanServer,
+	//under DOMAIN:type=Debugger,name=name
+	public static JmxBridge register(Debugger<?> debugger, String name) throws JMException{
+		return register(debugger, ManagementFactory.getPlatformMBeanServer(),
+				new ObjectName(DOMAIN + ":type=Debugger,name=" + ObjectName.quote(name)));
+	}
+
+	public static JmxBridge register(Debugger<?> debugger, MBeanServer server,
+			ObjectName objectName) throws JMException{
+		JmxBridge bridge = new JmxBridge(debugger);
+		bridge.server = server;
+		bridge.objectName = server.registerMBean(bridge, objectName).getObjectName();
+		debugger.addUpdatable(bridge);
+		return bridge;
+	}
+
+	public ObjectName getObjectName(){
+		return objectName;
+	}
+
+	@Override
+	public void update(Map<String, String> table){
+		synchronized(supplierKeys){
+			boolean keysChanged = false;
+			for(String key : supplierKeys){
+				if(!table.containsKey(key)){
+					values.remove(key);
+					keysChanged = true;
+				}
+			}
+			for(String key : table.keySet()){
+				if(!supplierKeys.contains(key)){
+					keysChanged = true;
+				}
+			}
+			supplierKeys.clear();
+			supplierKeys.addAll(table.keySet());
+			values.putAll(table);
+			if(keysChanged){
+				info = null;
+			}
+		}
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	@Override
+	public void update(SupplierDelta delta){
+		if(delta.isFull()){
+			update(delta.getAdded());
+			return;
+		}
+		synchronized(supplierKeys){
+			for(String key : delta.getRemoved()){
+				supplierKeys.remove(key);
+				values.remove(key);
+			}
+			supplierKeys.addAll(delta.getAdded().keySet());
+			values.putAll(delta.getAdded());
+			values.putAll(delta.getChanged());
+			if(!delta.getRemoved().isEmpty() || !delta.getAdded().isEmpty()){
+				info = null;
+			}
+		}
+	}
+
+	@Override
+	public void push(String key, String value){
+		if(value == null){
+			if(values.remove(key) != null){
+				info = null;
+			}
+			return;
+		}
+		changed(key, values.put(key, value), value);
+	}
+
+	@Override
+	public void pushLazy(String key, LazyValue value){
+		changed(key, values.put(key, value), value);
+	}
+
+	protected void changed(String key, Object oldValue, Object newValue){
+		if(oldValue == null){
+			info = null;
+		}
+		if(!listened){
+			return;
+		}
+		long now = System.nanoTime();
+		Long last = lastNotified.get(key);
+		if(last == null){
+			if(lastNotified.putIfAbsent(key, now) != null){
+				return;
+			}
+		}
+		else if(now - last < notificationNanos || !lastNotified.replace(key, last, now)){
+			return;
+		}
+		sendNotification(new AttributeChangeNotification(this,
+				sequence.incrementAndGet(), System.currentTimeMillis(),
+				key + " changed", key, String.class.getName(),
+				oldValue == null ? null : oldValue.toString(), newValue.toString()));
+	}
+
+	@Override
+	public void setExecutionState(String state){
+		executionState = state;
+		if(listened){
+			sendNotification(new Notification(STATE_NOTIFICATION, this,
+					sequence.incrementAndGet(), System.currentTimeMillis(), state));
+		}
+	}
+
+	public String getExecutionState(){
+		return executionState;
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException{
+		Object value = values.get(attribute);
+		if(value == null){
+			throw new AttributeNotFoundException(attribute);
+		}
+		return value.toString();
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException{
+		throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+	}
+
+	//Attributes that no longer exist are left out
+	@Override
+	public AttributeList getAttributes(String[] attributes){
+		AttributeList list = new AttributeList();
+		for(String attribute : attributes){
+			Object value = values.get(attribute);
+			if(value != null){
+				list.add(new Attribute(attribute, value.toString()));
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes){
+		return new AttributeList();
+	}
+
+	//pause returns at once; the Debugger is paused on a new thread as if it
+	//had hit a breakpoint, so the application keeps running but updates
+	//are held until resumed
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature)
+			throws MBeanException, ReflectionException{
+		switch(actionName){
+			case "pause":
+				if(!debugger.isPaused()){
+					Thread thread = new Thread(debugger::pause, "DynamicDebugger-jmx-pause");
+					thread.setDaemon(true);
+					thread.start();
+				}
+				return null;
+			case "resume":
+				debugger.resume();
+				return null;
+			case "resumeExecution":
+				if(params == null || params.length != 1 || !(params[0] instanceof Integer)){
+					throw new ReflectionException(new NoSuchMethodException(actionName));
+				}
+				debugger.resumeExecution((Integer) params[0]);
+				return null;
+			case "getExecutionState":
+				return executionState;
+			default:
+				throw new ReflectionException(new NoSuchMethodException(actionName));
+		}
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo(){
+		MBeanInfo current = info;
+		if(current == null){
+			current = buildInfo();
+			info = current;
+		}
+		return current;
+	}
+
+	protected MBeanInfo buildInfo(){
+		Set<String> keys = new TreeSet<String>(values.keySet());
+		MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[keys.size()];
+		int i = 0;
+		for(String key : keys){
+			attributes[i++] = new MBeanAttributeInfo(key, String.class.getName(),
+					key, true, false, false);
+		}
+		MBeanOperationInfo[] operations = {
+				new MBeanOperationInfo("pause", "Holds updates until resumed",
+						new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION),
+				new MBeanOperationInfo("resume", "Resumes a paused Debugger",
+						new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION),
+				new MBeanOperationInfo("resumeExecution",
+						"Resumes and skips the next count pauses; negative skips every pause",
+						new MBeanParameterInfo[]{
+								new MBeanParameterInfo("count", "int", "Pauses to skip")},
+						"void", MBeanOperationInfo.ACTION),
+				new MBeanOperationInfo("getExecutionState", "Paused or Running",
+						new MBeanParameterInfo[0], String.class.getName(),
+						MBeanOperationInfo.INFO)
+		};
+		return new MBeanInfo(getClass().getName(), "Dynamic Debugger", attributes,
+				null, operations, getNotificationInfo());
+	}
+
+	@Override
+	public MBeanNotificationInfo[] getNotificationInfo(){
+		return new MBeanNotificationInfo[]{
+				new MBeanNotificationInfo(
+						new String[]{AttributeChangeNotification.ATTRIBUTE_CHANGE},
+						AttributeChangeNotification.class.getName(),
+						"A variable changed"),
+				new MBeanNotificationInfo(new String[]{STATE_NOTIFICATION},
+						Notification.class.getName(),
+						"The execution state changed")
+		};
+	}
+
+	//Notifications are only built while someone listens
+	@Override
+	public void addNotificationListener(NotificationListener listener,
+			NotificationFilter filter, Object handback){
+		synchronized(registrations){
+			super.addNotificationListener(listener, filter, handback);
+			registrations.merge(listener, 1, Integer::sum);
+			listened = true;
+		}
+	}
+
+	@Override
+	public void removeNotificationListener(NotificationListener listener)
+			throws ListenerNotFoundException{
+		synchronized(registrations){
+			super.removeNotificationListener(listener);
+			registrations.remove(listener);
+			listened = !registrations.isEmpty();
+		}
+	}
+
+	@Override
+	public void removeNotificationListener(NotificationListener listener,
+			NotificationFilter filter, Object handback) throws ListenerNotFoundException{
+		synchronized(registrations){
+			super.removeNotificationListener(listener, filter, handback);
+			registrations.computeIfPresent(listener, (l, n) -> n == 1 ? null : n - 1);
+			listened = !registrations.isEmpty();
+		}
+	}
+
+	//Unregisters the bridge and stops receiving updates
+	@Override
+	public void close() throws IOException{
+		debugger.removeUpdatable(this);
+		if(server != null && server.isRegistered(objectName)){
+			try{
+				server.unregisterMBean(objectName);
+			}
+			catch(JMException e){
+				throw new IOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+//A supplier that carries its name, so the Debugger can show it
+//without building and parsing a "%$key=value" String every tick
+public interface KeyedSupplier<T> extends Supplier<T>{
+	String getKey();
+
+	static <T> KeyedSupplier<T> of(String key, Supplier<? extends T> supplier){
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(supplier);
+		return new KeyedSupplier<T>(){
+
+			@Override
+			public String getKey(){
+				return key;
+			}
+
+			@Override
+			public T get(){
+				return supplier.get();
+			}
+
+			@Override
+			public String toString(){
+				return key;
+			}
+
+		};
+	}
+}
@@ -0,0 +1,95 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Keeps the latest value of every key in memory, for headless Debuggers
+//Values of variables are kept as LazyValues and formatted when read
+public class LatestValueSink implements DebuggerUpdatable{
+
+	//Values are Strings or LazyValues
+	protected Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+	protected Set<String> supplierKeys = new HashSet<String>();
+	protected volatile String executionState = "Running";
+
+	//Suppliers that are missing from the map have been removed
+	@Override
+	public void update(Map<String, String> table){
+		synchronized(supplierKeys){
+			for(String key : supplierKeys){
+				if(!table.containsKey(key)){
+					values.remove(key);
+				}
+			}
+			supplierKeys.clear();
+			supplierKeys.addAll(table.keySet());
+			values.putAll(table);
+		}
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	@Override
+	public void update(SupplierDelta delta){
+		if(delta.isFull()){
+			update(delta.getAdded());
+			return;
+		}
+		synchronized(supplierKeys){
+			for(String key : delta.getRemoved()){
+				supplierKeys.remove(key);
+				values.remove(key);
+			}
+			supplierKeys.addAll(delta.getAdded().keySet());
+			values.putAll(delta.getAdded());
+			values.putAll(delta.getChanged());
+		}
+	}
+
+	@Override
+	public void push(String key, String value){
+		if(value == null){
+			values.remove(key);
+		}
+		else{
+			values.put(key, value);
+		}
+	}
+
+	@Override
+	public void pushLazy(String key, LazyValue value){
+		values.put(key, value);
+	}
+
+	@Override
+	public void setExecutionState(String state){
+		executionState = state;
+	}
+
+	public String get(String key){
+		Object value = values.get(key);
+		return value == null ? null : value.toString();
+	}
+
+	//A sorted copy of the current values
+	public Map<String, String> getValues(){
+		Map<String, String> copy = new TreeMap<String, String>();
+		for(Map.Entry<String, Object> entry : values.entrySet()){
+			copy.put(entry.getKey(), entry.getValue().toString());
+		}
+		return Collections.unmodifiableMap(copy);
+	}
+
+	public String getExecutionState(){
+		return executionState;
+	}
+}
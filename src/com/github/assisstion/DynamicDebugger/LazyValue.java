@@ -0,0 +1,61 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+//The new value of a variable, turned into text only when a sink needs it
+//The text is computed on the first call to getText (on whichever thread
+//makes it) and cached; every change of the variable creates a new LazyValue,
+//so the cache never holds the text of an older value
+//If the value is mutable and may be modified before it is shown, give the
+//variable a copier (see Debugger.setCopier)
+//The values of primitive variables are kept unboxed by IntLazyValue,
+//LongLazyValue and DoubleLazyValue
+public class LazyValue{
+
+	protected Object value;
+	protected Function<Object, String> formatter;
+	protected volatile String text;
+
+	public LazyValue(Object value){
+		this(value, String::valueOf);
+	}
+
+	public LazyValue(Object value, Function<Object, String> formatter){
+		this.value = value;
+		this.formatter = Objects.requireNonNull(formatter);
+	}
+
+	//For subclasses that hold the value themselves; a null formatter means
+	//their default text
+	protected LazyValue(Function<Object, String> formatter){
+		this.formatter = formatter;
+	}
+
+	public Object getValue(){
+		return value;
+	}
+
+	public String getText(){
+		String t = text;
+		if(t == null){
+			//Formatting twice on a race is harmless
+			t = format();
+			text = t;
+		}
+		return t;
+	}
+
+	protected String format(){
+		return String.valueOf(formatter.apply(value));
+	}
+
+	public boolean isFormatted(){
+		return text != null;
+	}
+
+	@Override
+	public String toString(){
+		return getText();
+	}
+}
@@ -0,0 +1,165 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//Lock-free histogram of non-negative longs (e.g. durations in nanoseconds)
+//with one bucket per power of two, so percentiles are accurate to within a
+//factor of two; each bucket is a LongAdder, so recording from many threads
+//does not contend
+//Negative values are recorded as 0
+public class Log2Histogram{
+
+	protected LongAdder[] buckets = new LongAdder[65];
+	protected LongAdder count = new LongAdder();
+	protected LongAdder sum = new LongAdder();
+	protected AtomicLong max = new AtomicLong();
+
+	public Log2Histogram(){
+		for(int i = 0; i < buckets.length; i++){
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(long value){
+		if(value < 0){
+			value = 0;
+		}
+		buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+		count.increment();
+		sum.add(value);
+		long m = max.get();
+		while(value > m && !max.compareAndSet(m, value)){
+			m = max.get();
+		}
+	}
+
+	public long getCount(){
+		return count.sum();
+	}
+
+	public long getMax(){
+		return max.get();
+	}
+
+	public double getMean(){
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	//The upper bound of the bucket holding the percentile (0 to 100)
+	public long getPercentile(double percentile){
+		long[] counts = new long[buckets.length];
+		long total = 0;
+		for(int i = 0; i < buckets.length; i++){
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		return percentile(counts, total, percentile);
+	}
+
+	protected long percentile(long[] counts, long total, double percentile){
+		if(total == 0){
+			return 0;
+		}
+		long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100);
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++){
+			seen += counts[i];
+			if(seen >= Math.max(1, target)){
+				long bound = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+				return Math.min(bound, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	//Not atomic with respect to concurrent recording
+	public void reset(){
+		for(LongAdder bucket : buckets){
+			bucket.reset();
+		}
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	public Summary summarize(){
+		long[] counts = new long[buckets.length];
+		long total = 0;
+		for(int i = 0; i < buckets.length; i++){
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		return new Summary(total, total == 0 ? 0 : (double) sum.sum() / total,
+				percentile(counts, total, 50), percentile(counts, total, 90),
+				percentile(counts, total, 99), max.get());
+	}
+
+	//The state of a histogram at one point in time
+	public static class Summary{
+
+		protected long count;
+		protected double mean;
+		protected long p50;
+		protected long p90;
+		protected long p99;
+		protected long max;
+
+		public Summary(long count, double mean, long p50, long p90, long p99, long max){
+			this.count = count;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.max = max;
+		}
+
+		public long getCount(){
+			return count;
+		}
+
+		public double getMean(){
+			return mean;
+		}
+
+		public long getP50(){
+			return p50;
+		}
+
+		public long getP90(){
+			return p90;
+		}
+
+		public long getP99(){
+			return p99;
+		}
+
+		public long getMax(){
+			return max;
+		}
+
+		@Override
+		public int hashCode(){
+			return Objects.hash(count, mean, p50, p90, p99, max);
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof Summary)){
+				return false;
+			}
+			Summary other = (Summary) o;
+			return count == other.count && Double.compare(mean, other.mean) == 0 &&
+					p50 == other.p50 && p90 == other.p90 && p99 == other.p99 &&
+					max == other.max;
+		}
+
+		@Override
+		public String toString(){
+			return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+					count, mean, p50, p90, p99, max);
+		}
+	}
+}
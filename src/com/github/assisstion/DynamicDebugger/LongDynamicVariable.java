@@ -0,0 +1,66 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
+
+//Unboxed long variable; the boxed get()/set() are only for compatibility
+//with code that expects a MutableDynamicVariable<Long>
+public interface LongDynamicVariable extends MutableDynamicVariable<Long>, LongSupplier{
+	boolean addLongChangeListener(LongVariableListener vl);
+	boolean removeLongChangeListener(LongVariableListener vl);
+	void set(long value);
+	@Override
+	long getAsLong();
+	boolean compareAndSet(long expect, long update);
+	long getAndSet(long value);
+	long addAndGet(long delta);
+	long updateAndGetAsLong(LongUnaryOperator updateFunction);
+	long accumulateAndGetAsLong(long x, LongBinaryOperator accumulatorFunction);
+
+	default long incrementAndGet(){
+		return addAndGet(1);
+	}
+
+	default long decrementAndGet(){
+		return addAndGet(-1);
+	}
+
+	@Override
+	default Long get(){
+		return getAsLong();
+	}
+
+	@Override
+	default void set(Long t){
+		set(t.longValue());
+	}
+
+	//Unlike MutableDynamicVariable.compareAndSet, the values are compared,
+	//not the boxes, since the variable holds no box to compare; null cannot
+	//be held, so it is rejected
+	@Override
+	default boolean compareAndSet(Long expect, Long update){
+		Objects.requireNonNull(expect, "expect");
+		Objects.requireNonNull(update, "update");
+		return compareAndSet(expect.longValue(), update.longValue());
+	}
+
+	@Override
+	default Long getAndSet(Long t){
+		return getAndSet(t.longValue());
+	}
+
+	@Override
+	default Long updateAndGet(UnaryOperator<Long> updateFunction){
+		return updateAndGetAsLong((v) -> updateFunction.apply(v));
+	}
+
+	@Override
+	default Long accumulateAndGet(Long x, BinaryOperator<Long> accumulatorFunction){
+		return accumulateAndGetAsLong(x, (a, b) -> accumulatorFunction.apply(a, b));
+	}
+}
@@ -0,0 +1,218 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+//Stores the value unboxed; boxed listeners are still supported,
+//but the value is only boxed if at least one of them is registered
+//Non-blocking, like DynamicVariableHolder
+public class LongDynamicVariableHolder extends AbstractDynamicVariable<Long>
+implements LongDynamicVariable{
+
+	protected List<LongVariableListener> longListeners =
+			new CopyOnWriteArrayList<LongVariableListener>();
+	private static final AtomicLongFieldUpdater<LongDynamicVariableHolder> VALUE =
+			AtomicLongFieldUpdater.newUpdater(LongDynamicVariableHolder.class, "value");
+
+	protected volatile long value;
+
+	protected boolean longPending = false;
+	protected long pendingLongOldValue;
+	protected long pendingLongTimeStamp;
+
+	public LongDynamicVariableHolder(){
+		this(null, 0L);
+	}
+
+	public LongDynamicVariableHolder(long value){
+		this(null, value);
+	}
+
+	public LongDynamicVariableHolder(String name){
+		this(name, 0L);
+	}
+
+	public LongDynamicVariableHolder(String name, long value){
+		super(name);
+		this.value = value;
+	}
+
+	@Override
+	public void set(long value){
+		getAndSet(value);
+	}
+
+	@Override
+	public long getAsLong(){
+		return value;
+	}
+
+	@Override
+	public long getAndSet(long value){
+		long time = System.currentTimeMillis();
+		long old = VALUE.getAndSet(this, value);
+		fireLongChangeListeners(old, value, time);
+		return old;
+	}
+
+	@Override
+	public boolean compareAndSet(long expect, long update){
+		long time = System.currentTimeMillis();
+		if(VALUE.compareAndSet(this, expect, update)){
+			fireLongChangeListeners(expect, update, time);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long addAndGet(long delta){
+		long time = System.currentTimeMillis();
+		long old = VALUE.getAndAdd(this, delta);
+		fireLongChangeListeners(old, old + delta, time);
+		return old + delta;
+	}
+
+	@Override
+	public long updateAndGetAsLong(LongUnaryOperator updateFunction){
+		long time = System.currentTimeMillis();
+		long prev;
+		long next;
+		do{
+			prev = value;
+			next = updateFunction.applyAsLong(prev);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireLongChangeListeners(prev, next, time);
+		return next;
+	}
+
+	@Override
+	public long accumulateAndGetAsLong(long x, LongBinaryOperator accumulatorFunction){
+		long time = System.currentTimeMillis();
+		long prev;
+		long next;
+		do{
+			prev = value;
+			next = accumulatorFunction.applyAsLong(prev, x);
+		}
+		while(!VALUE.compareAndSet(this, prev, next));
+		fireLongChangeListeners(prev, next, time);
+		return next;
+	}
+
+	@Override
+	public boolean addLongChangeListener(LongVariableListener vl){
+		return longListeners.add(vl);
+	}
+
+	@Override
+	public boolean removeLongChangeListener(LongVariableListener vl){
+		return longListeners.remove(vl);
+	}
+
+	@Override
+	public void clearChangeListeners(){
+		super.clearChangeListeners();
+		longListeners.clear();
+	}
+
+	protected void fireLongChangeListeners(long oldValue, long newValue, long timeStamp){
+		//The value is only boxed for boxed listeners; the change is counted once
+		if(listeners.isEmpty()){
+			changed();
+		}
+		else{
+			fireChangeListeners(oldValue, newValue, timeStamp);
+		}
+		if(coalescing){
+			if(longListeners.isEmpty()){
+				return;
+			}
+			synchronized(pendingLock){
+				if(!longPending){
+					longPending = true;
+					pendingLongOldValue = oldValue;
+				}
+				pendingLongTimeStamp = timeStamp;
+			}
+			scheduleDrain();
+			return;
+		}
+		if(longListeners.isEmpty()){
+			return;
+		}
+		//The holder itself is the target; the listener list changes, so it
+		//cannot identify the primitive listeners
+		getDispatcher().dispatch(this, this, this.new LongChange(
+				oldValue, newValue, timeStamp));
+	}
+
+	@Override
+	protected boolean hasPendingChanges(){
+		return super.hasPendingChanges() || longPending;
+	}
+
+	//Coalesced primitive changes always deliver the current value
+	@Override
+	protected void drainPendingChanges(){
+		super.drainPendingChanges();
+		long oldValue;
+		long newValue;
+		long timeStamp;
+		synchronized(pendingLock){
+			if(!longPending){
+				return;
+			}
+			longPending = false;
+			oldValue = pendingLongOldValue;
+			newValue = value;
+			timeStamp = pendingLongTimeStamp;
+		}
+		LongVariableChangeEvent e = new LongVariableChangeEvent(
+				oldValue, newValue, timeStamp, this);
+		for(LongVariableListener vl : longListeners){
+			vl.changeOccured(e);
+		}
+	}
+
+	//A change is one object, both the event and the task that gives it to
+	//every long listener; a listener that throws does not keep it from the
+	//others
+	protected class LongChange extends LongVariableChangeEvent implements Runnable{
+
+		public LongChange(long oldValue, long newValue, long timeStamp){
+			super(oldValue, newValue, timeStamp, LongDynamicVariableHolder.this);
+		}
+
+		@Override
+		public void run(){
+			RuntimeException failure = null;
+			for(LongVariableListener vl : longListeners){
+				try{
+					vl.changeOccured(this);
+				}
+				catch(RuntimeException e){
+					if(failure == null){
+						failure = e;
+					}
+					else{
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			if(failure != null){
+				throw failure;
+			}
+		}
+
+	}
+
+	public static LongDynamicVariableHolder valueOf(String name, long value){
+		return new LongDynamicVariableHolder(name, value);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.github.assisstion.DynamicDebugger;
+
+//History of an int or long variable
+public class LongHistory extends PrimitiveHistory<Long>
+implements IntVariableListener, LongVariableListener{
+
+	public LongHistory(int capacity){
+		this(capacity, false);
+	}
+
+	public LongHistory(int capacity, boolean offHeap){
+		super(capacity, offHeap);
+	}
+
+	public void record(long timeStamp, long value){
+		recordBits(timeStamp, value);
+	}
+
+	public long getLong(int index){
+		return getBits(index);
+	}
+
+	public int copyLast(long[] timeStamps, long[] values){
+		return copyLastBits(timeStamps, values);
+	}
+
+	@Override
+	public void changeOccured(IntVariableChangeEvent e){
+		record(e.getTimeStamp(), e.getNewValue());
+	}
+
+	@Override
+	public void changeOccured(LongVariableChangeEvent e){
+		record(e.getTimeStamp(), e.getNewValue());
+	}
+
+	@Override
+	protected Long valueAt(int slot){
+		return bitsAt(slot);
+	}
+}
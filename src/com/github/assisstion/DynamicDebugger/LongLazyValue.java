@@ -0,0 +1,39 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.function.Function;
+
+//The new value of a long variable, kept unboxed
+//Without a formatter the text is Long.toString of the value, as for a
+//boxed value; a formatter is given the boxed value, which is only boxed
+//when the text is first needed
+public class LongLazyValue extends LazyValue{
+
+	protected long longValue;
+
+	public LongLazyValue(long value){
+		super(null);
+		longValue = value;
+	}
+
+	public LongLazyValue(long value, Function<Object, String> formatter){
+		super(formatter);
+		longValue = value;
+	}
+
+	public long getLongValue(){
+		return longValue;
+	}
+
+	@Override
+	public Object getValue(){
+		return longValue;
+	}
+
+	@Override
+	protected String format(){
+		if(formatter == null){
+			return Long.toString(longValue);
+		}
+		return String.valueOf(formatter.apply(longValue));
+	}
+}
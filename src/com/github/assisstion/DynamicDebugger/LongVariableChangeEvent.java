@@ -0,0 +1,32 @@
+package com.github.assisstion.DynamicDebugger;
+
+public class LongVariableChangeEvent{
+	protected long oldValue;
+	protected long newValue;
+	protected long timeStamp;
+	protected LongDynamicVariable source;
+
+	public LongVariableChangeEvent(long oldValue, long newValue, long timeStamp,
+			LongDynamicVariable source){
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+		this.timeStamp = timeStamp;
+		this.source = source;
+	}
+
+	public long getOldValue(){
+		return oldValue;
+	}
+
+	public long getNewValue(){
+		return newValue;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public LongDynamicVariable getSource(){
+		return source;
+	}
+}
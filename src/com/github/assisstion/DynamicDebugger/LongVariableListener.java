@@ -0,0 +1,6 @@
+package com.github.assisstion.DynamicDebugger;
+
+//Primitive counterpart of VariableListener for LongDynamicVariable
+public interface LongVariableListener{
+	void changeOccured(LongVariableChangeEvent e);
+}
@@ -1,5 +1,52 @@
 package com.github.assisstion.DynamicDebugger;
 
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
 public interface MutableDynamicVariable<T> extends DynamicVariable<T>{
 	void set(T t);
+
+	//The atomic operations below fire exactly one change event for every
+	//update they make, even one that leaves the value as it was; a failed
+	//compareAndSet fires none
+	//By default they are built on get and set while synchronized on the
+	//variable, so they are only atomic with respect to each other and to
+	//other code synchronized on it; DynamicVariableHolder and the primitive
+	//holders override them without locking
+	//compareAndSet compares by identity, like AtomicReference, except on
+	//the primitive variables (see IntDynamicVariable)
+
+	default boolean compareAndSet(T expect, T update){
+		synchronized(this){
+			if(get() != expect){
+				return false;
+			}
+			set(update);
+			return true;
+		}
+	}
+
+	default T getAndSet(T t){
+		synchronized(this){
+			T old = get();
+			set(t);
+			return old;
+		}
+	}
+
+	default T updateAndGet(UnaryOperator<T> updateFunction){
+		synchronized(this){
+			T next = updateFunction.apply(get());
+			set(next);
+			return next;
+		}
+	}
+
+	default T accumulateAndGet(T x, BinaryOperator<T> accumulatorFunction){
+		synchronized(this){
+			T next = accumulatorFunction.apply(get(), x);
+			set(next);
+			return next;
+		}
+	}
 }
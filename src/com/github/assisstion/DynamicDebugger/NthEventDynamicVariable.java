@@ -0,0 +1,45 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Passes on every nth change of its source and drops the others
+//get returns the current value of the source
+public class NthEventDynamicVariable<T> extends DynamicVariableWrapper<T, T>{
+
+	protected int n;
+	protected AtomicLong count = new AtomicLong();
+	//Guarded by this
+	protected T emitted;
+
+	public NthEventDynamicVariable(DynamicVariable<? extends T> source, int n){
+		this(null, source, n);
+	}
+
+	public NthEventDynamicVariable(String name, DynamicVariable<? extends T> source, int n){
+		super(name, source);
+		if(n < 1){
+			throw new IllegalArgumentException("n must be positive");
+		}
+		this.n = n;
+		emitted = source.get();
+		start();
+	}
+
+	@Override
+	public T get(){
+		return source.get();
+	}
+
+	@Override
+	protected void sourceChanged(VariableChangeEvent<? extends T> e){
+		if(count.incrementAndGet() % n != 0){
+			return;
+		}
+		T oldValue;
+		synchronized(this){
+			oldValue = emitted;
+			emitted = e.getNewValue();
+		}
+		fireChangeListeners(oldValue, e.getNewValue(), e.getTimeStamp());
+	}
+}
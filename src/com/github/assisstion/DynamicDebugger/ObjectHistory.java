@@ -0,0 +1,55 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Arrays;
+
+//History of a variable of any type; keeps references to the values
+public class ObjectHistory<T> extends VariableHistory<T> implements VariableListener<T>{
+
+	protected long[] timeStamps;
+	protected Object[] values;
+
+	public ObjectHistory(int capacity){
+		super(capacity);
+		timeStamps = new long[capacity];
+		values = new Object[capacity];
+	}
+
+	public synchronized void record(long timeStamp, T value){
+		int slot = nextSlot();
+		timeStamps[slot] = timeStamp;
+		values[slot] = value;
+		sortNewest();
+	}
+
+	@Override
+	public void changeOccured(VariableChangeEvent<? extends T> e){
+		record(e.getTimeStamp(), e.getNewValue());
+	}
+
+	@Override
+	public synchronized void clear(){
+		super.clear();
+		Arrays.fill(values, null);
+	}
+
+	@Override
+	protected void swap(int slot, int other){
+		long timeStamp = timeStamps[slot];
+		Object value = values[slot];
+		timeStamps[slot] = timeStamps[other];
+		values[slot] = values[other];
+		timeStamps[other] = timeStamp;
+		values[other] = value;
+	}
+
+	@Override
+	protected long timeStampAt(int slot){
+		return timeStamps[slot];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected T valueAt(int slot){
+		return (T) values[slot];
+	}
+}
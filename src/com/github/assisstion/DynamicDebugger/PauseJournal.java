@@ -0,0 +1,359 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+//Holds the changes of variables made while a Debugger is paused with
+//hold and cache, until they are released on resume (see Debugger.pause)
+//In LATEST mode only the last value of each variable is kept; in HISTORY
+//mode every change is kept, up to maxEntries in memory, after which the
+//history is either compacted to the last value of each variable or spilled
+//to a temporary file
+//Values are Strings or LazyValues; spilled values are kept as their text
+//The journal can be read while the Debugger is paused (see getEntries)
+//Spilled keys and values are written as length-prefixed UTF-8, so they are
+//not limited in length
+//Once the Debugger has released every entry on resume it closes the journal,
+//and writers that still try to record a change push it instead
+//Errors of the spill file lose the spilled entries; the last one is kept
+//(see getFailure)
+public class PauseJournal{
+
+	public enum Mode{
+		LATEST,
+		HISTORY
+	}
+
+	public enum Overflow{
+		//Keep only the last value of each variable
+		COMPACT,
+		//Move the history to a temporary file
+		SPILL
+	}
+
+	public static final int DEFAULT_MAX_ENTRIES = 65536;
+	//Entries released at a time, see Drain
+	public static final int BATCH_SIZE = 256;
+
+	protected Mode mode;
+	protected int maxEntries;
+	protected Overflow overflow;
+	//Guarded by this; LATEST mode, in order of the last change
+	protected LinkedHashMap<String, Entry> latest = new LinkedHashMap<String, Entry>();
+	//Guarded by this; HISTORY mode
+	protected List<Entry> history = new ArrayList<Entry>();
+	protected int compactAt;
+	protected File spillFile;
+	protected DataOutputStream spillOut;
+	protected long spilled = 0;
+	protected boolean closed = false;
+	protected volatile IOException failure;
+
+	//Keeps the last value of each variable, like the hold cache used to
+	public PauseJournal(){
+		this(Mode.LATEST, DEFAULT_MAX_ENTRIES, Overflow.COMPACT);
+	}
+
+	public PauseJournal(Mode mode, int maxEntries, Overflow overflow){
+		if(maxEntries < 1){
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		this.mode = mode;
+		this.maxEntries = maxEntries;
+		this.overflow = overflow;
+		compactAt = maxEntries;
+	}
+
+	public Mode getMode(){
+		return mode;
+	}
+
+	public int getMaxEntries(){
+		return maxEntries;
+	}
+
+	public Overflow getOverflow(){
+		return overflow;
+	}
+
+	//False if the journal is closed, and the change was not recorded
+	public synchronized boolean record(String key, Object value, long timeStamp){
+		if(closed){
+			return false;
+		}
+		Entry entry = new Entry(key, value, timeStamp);
+		if(mode == Mode.LATEST){
+			//Moves the key to the end
+			latest.remove(key);
+			latest.put(key, entry);
+			return true;
+		}
+		history.add(entry);
+		if(history.size() >= compactAt){
+			if(overflow == Overflow.SPILL){
+				spill();
+			}
+			else{
+				compact();
+			}
+		}
+		return true;
+	}
+
+	//Called by the Debugger when a pause that caches changes begins
+	protected synchronized void open(){
+		closed = false;
+	}
+
+	public synchronized boolean isClosed(){
+		return closed;
+	}
+
+	//The last error of the spill file, or null if there was none
+	public IOException getFailure(){
+		return failure;
+	}
+
+	protected void failed(IOException e){
+		failure = e;
+	}
+
+	//Keeps the last entry of each key, in the order of their last change
+	protected void compact(){
+		Set<String> seen = new HashSet<String>();
+		List<Entry> compacted = new ArrayList<Entry>();
+		for(int i = history.size() - 1; i >= 0; i--){
+			Entry entry = history.get(i);
+			if(seen.add(entry.key)){
+				compacted.add(entry);
+			}
+		}
+		Collections.reverse(compacted);
+		history = compacted;
+		//If most keys are distinct, compacting again soon would free little
+		compactAt = Math.max(maxEntries, history.size() * 2);
+	}
+
+	protected void spill(){
+		try{
+			if(spillOut == null){
+				spillFile = File.createTempFile("DynamicDebugger-journal", ".bin");
+				spillFile.deleteOnExit();
+				spillOut = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(spillFile)));
+			}
+			for(Entry entry : history){
+				writeText(spillOut, entry.key);
+				writeText(spillOut, entry.getText());
+				spillOut.writeLong(entry.timeStamp);
+			}
+			spilled += history.size();
+			history.clear();
+		}
+		catch(IOException e){
+			//Keeps the history in memory, compacted
+			failed(e);
+			compact();
+		}
+	}
+
+	//writeUTF is limited to 65535 bytes
+	protected static void writeText(DataOutputStream out, String text) throws IOException{
+		byte[] bytes = text.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	protected static String readText(DataInputStream in) throws IOException{
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	public synchronized boolean isEmpty(){
+		return latest.isEmpty() && history.isEmpty() && spilled == 0;
+	}
+
+	//Entries held, including spilled ones
+	public synchronized long size(){
+		return latest.size() + history.size() + spilled;
+	}
+
+	public synchronized long getSpilledCount(){
+		return spilled;
+	}
+
+	//The entries held, oldest first, including spilled ones, read BATCH_SIZE
+	//at a time like a Drain; the entries in memory are copied, and spilled
+	//ones are read from the file as the batches are taken, without holding
+	//the journal, so changes can still be recorded meanwhile
+	//Closing the view leaves the journal as it was
+	public synchronized Drain getEntries() throws IOException{
+		List<Entry> memory = new ArrayList<Entry>(latest.values());
+		memory.addAll(history);
+		DataInputStream spillIn = null;
+		if(spillOut != null){
+			spillOut.flush();
+			spillIn = openSpilled(spillFile);
+		}
+		return new Drain(null, spillIn, spilled, memory);
+	}
+
+	protected static DataInputStream openSpilled(File file) throws IOException{
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+	}
+
+	//Takes every entry out of the journal, leaving it empty
+	//If the spill file cannot be read back, the journal is left as it was;
+	//discardSpilled lets the entries in memory be taken
+	public synchronized Drain take() throws IOException{
+		List<Entry> memory = new ArrayList<Entry>(latest.values());
+		memory.addAll(history);
+		DataInputStream spillIn = null;
+		if(spillOut != null){
+			spillOut.close();
+			spillIn = openSpilled(spillFile);
+		}
+		Drain drain = new Drain(spillFile, spillIn, spilled, memory);
+		latest = new LinkedHashMap<String, Entry>();
+		history = new ArrayList<Entry>();
+		compactAt = maxEntries;
+		spillFile = null;
+		spillOut = null;
+		spilled = 0;
+		return drain;
+	}
+
+	//Takes every entry, or closes the journal if there are none
+	protected synchronized Drain takeOrClose() throws IOException{
+		if(isEmpty()){
+			closed = true;
+			return null;
+		}
+		return take();
+	}
+
+	//Deletes the spill file and forgets the entries in it
+	public synchronized void discardSpilled(){
+		if(spillOut != null){
+			try{
+				spillOut.close();
+			}
+			catch(IOException e){
+				failed(e);
+			}
+			spillFile.delete();
+		}
+		spillFile = null;
+		spillOut = null;
+		spilled = 0;
+	}
+
+	public static class Entry{
+
+		protected String key;
+		protected Object value;
+		protected long timeStamp;
+
+		public Entry(String key, Object value, long timeStamp){
+			this.key = key;
+			this.value = value;
+			this.timeStamp = timeStamp;
+		}
+
+		public String getKey(){
+			return key;
+		}
+
+		//A String or a LazyValue
+		public Object getValue(){
+			return value;
+		}
+
+		public String getText(){
+			return String.valueOf(value);
+		}
+
+		public long getTimeStamp(){
+			return timeStamp;
+		}
+
+		@Override
+		public String toString(){
+			return key + "=" + getText();
+		}
+
+	}
+
+	//Entries taken from a journal, read BATCH_SIZE at a time, spilled ones
+	//first; closing it deletes the spill file, if it was taken
+	public static class Drain implements Closeable{
+
+		protected File spillFile;
+		protected DataInputStream spillIn;
+		protected long spilledLeft;
+		protected List<Entry> memory;
+		protected int memoryIndex = 0;
+
+		//spillFile is null if the file still belongs to the journal
+		protected Drain(File spillFile, DataInputStream spillIn, long spilled,
+				List<Entry> memory){
+			this.spillFile = spillFile;
+			this.spillIn = spillIn;
+			this.memory = memory;
+			if(spillIn != null){
+				spilledLeft = spilled;
+			}
+		}
+
+		//Null once every entry has been read; after an error, skipSpilled
+		//lets the entries in memory be read
+		public List<Entry> nextBatch() throws IOException{
+			List<Entry> batch = new ArrayList<Entry>(BATCH_SIZE);
+			while(spilledLeft > 0 && batch.size() < BATCH_SIZE){
+				try{
+					batch.add(new Entry(readText(spillIn), readText(spillIn),
+							spillIn.readLong()));
+				}
+				catch(EOFException e){
+					spilledLeft = 0;
+					break;
+				}
+				spilledLeft--;
+			}
+			while(memoryIndex < memory.size() && batch.size() < BATCH_SIZE){
+				batch.add(memory.get(memoryIndex++));
+			}
+			return batch.isEmpty() ? null : batch;
+		}
+
+		public void skipSpilled(){
+			spilledLeft = 0;
+		}
+
+		@Override
+		public void close() throws IOException{
+			if(spillIn != null){
+				spillIn.close();
+			}
+			if(spillFile != null){
+				spillFile.delete();
+			}
+		}
+
+	}
+}
@@ -0,0 +1,86 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+//Stores each sample as two longs (the timestamp and the bits of the value)
+//in a LongBuffer, either on the heap or off-heap, so that recording a sample
+//never allocates
+public abstract class PrimitiveHistory<T> extends VariableHistory<T>{
+
+	//Buffers are indexed by int, and arrays cannot quite reach
+	//Integer.MAX_VALUE elements
+	public static final int MAX_OFF_HEAP_CAPACITY = Integer.MAX_VALUE / (2 * Long.BYTES);
+	public static final int MAX_HEAP_CAPACITY = (Integer.MAX_VALUE - 8) / 2;
+
+	protected LongBuffer buffer;
+
+	public PrimitiveHistory(int capacity, boolean offHeap){
+		super(capacity);
+		if(capacity > (offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY)){
+			throw new IllegalArgumentException("capacity is too large");
+		}
+		long longs = 2L * capacity;
+		if(offHeap){
+			buffer = ByteBuffer.allocateDirect((int) (longs * Long.BYTES))
+					.order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+		else{
+			buffer = LongBuffer.allocate((int) longs);
+		}
+	}
+
+	public boolean isOffHeap(){
+		return buffer.isDirect();
+	}
+
+	protected synchronized void recordBits(long timeStamp, long bits){
+		int slot = nextSlot();
+		buffer.put(slot * 2, timeStamp);
+		buffer.put(slot * 2 + 1, bits);
+		sortNewest();
+	}
+
+	public synchronized long getBits(int index){
+		return bitsAt(slot(index));
+	}
+
+	//Copies the newest samples (at most as many as fit in the arrays,
+	//oldest first) without allocating; timeStamps may be null
+	//Returns the number of samples copied
+	public synchronized int copyLastBits(long[] timeStamps, long[] bits){
+		int n = Math.min(bits.length, size());
+		if(timeStamps != null){
+			n = Math.min(n, timeStamps.length);
+		}
+		int start = size() - n;
+		for(int i = 0; i < n; i++){
+			int slot = slot(start + i);
+			if(timeStamps != null){
+				timeStamps[i] = timeStampAt(slot);
+			}
+			bits[i] = bitsAt(slot);
+		}
+		return n;
+	}
+
+	@Override
+	protected long timeStampAt(int slot){
+		return buffer.get(slot * 2);
+	}
+
+	protected long bitsAt(int slot){
+		return buffer.get(slot * 2 + 1);
+	}
+
+	@Override
+	protected void swap(int slot, int other){
+		long timeStamp = buffer.get(slot * 2);
+		long bits = buffer.get(slot * 2 + 1);
+		buffer.put(slot * 2, buffer.get(other * 2));
+		buffer.put(slot * 2 + 1, buffer.get(other * 2 + 1));
+		buffer.put(other * 2, timeStamp);
+		buffer.put(other * 2 + 1, bits);
+	}
+}
@@ -0,0 +1,93 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.File;
+
+//Layout of the files written by ChangeRecorder
+//A recording is a name dictionary (prefix.names, one "id<TAB>name" line per
+//id, with backslashes, tabs and line breaks in the name escaped as in Java
+//string literals) and a series of segments (prefix-000000.seg, prefix-000001.seg, ...)
+//Each segment starts with MAGIC and VERSION (two ints) followed by records:
+//  int id, byte type, long timeStamp, value
+//where the value is 8 bytes for INT, LONG, DOUBLE and BOOLEAN (the bits of the
+//value), an int length and that many UTF-8 bytes for STRING, and nothing for
+//NULL; an id of 0 (or the end of the segment) ends the segment
+//Records with the id STATE_ID are execution state changes (a STRING)
+final class RecordFormat{
+
+	public static final int MAGIC = 0x44445243;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 8;
+	public static final int RECORD_HEADER_SIZE = 4 + 1 + 8;
+
+	public static final int END_ID = 0;
+	public static final int STATE_ID = -1;
+
+	public static final byte TYPE_NULL = 0;
+	public static final byte TYPE_INT = 1;
+	public static final byte TYPE_LONG = 2;
+	public static final byte TYPE_DOUBLE = 3;
+	public static final byte TYPE_BOOLEAN = 4;
+	public static final byte TYPE_STRING = 5;
+
+	private RecordFormat(){
+		//Not instantiable
+	}
+
+	public static File segmentFile(File directory, String prefix, int index){
+		return new File(directory, String.format("%s-%06d.seg", prefix, index));
+	}
+
+	public static File namesFile(File directory, String prefix){
+		return new File(directory, prefix + ".names");
+	}
+
+	public static String escapeName(String name){
+		StringBuilder escaped = new StringBuilder(name.length());
+		for(int i = 0; i < name.length(); i++){
+			char c = name.charAt(i);
+			switch(c){
+				case '\\':
+					escaped.append("\\\\");
+					break;
+				case '\t':
+					escaped.append("\\t");
+					break;
+				case '\n':
+					escaped.append("\\n");
+					break;
+				case '\r':
+					escaped.append("\\r");
+					break;
+				default:
+					escaped.append(c);
+					break;
+			}
+		}
+		return escaped.toString();
+	}
+
+	//A backslash before any other character stands for that character
+	public static String unescapeName(String escaped){
+		if(escaped.indexOf('\\') < 0){
+			return escaped;
+		}
+		StringBuilder name = new StringBuilder(escaped.length());
+		for(int i = 0; i < escaped.length(); i++){
+			char c = escaped.charAt(i);
+			if(c == '\\' && i + 1 < escaped.length()){
+				c = escaped.charAt(++i);
+				if(c == 't'){
+					c = '\t';
+				}
+				else if(c == 'n'){
+					c = '\n';
+				}
+				else if(c == 'r'){
+					c = '\r';
+				}
+			}
+			name.append(c);
+		}
+		return name.toString();
+	}
+}
@@ -0,0 +1,307 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Reads a recording written by ChangeRecorder, one record at a time, from
+//memory-mapped segments; the fields of the current record are read with
+//the getters after next() returns true
+//On opening, the recording is scanned once to build a sparse index (one
+//entry every indexInterval records) used by seek(), and to find the type
+//of each variable
+//Not thread safe
+public class RecordingReader implements Closeable{
+
+	public static final int DEFAULT_INDEX_INTERVAL = 4096;
+
+	protected File directory;
+	protected String prefix;
+	protected Map<Integer, String> names = new HashMap<Integer, String>();
+	protected Map<Integer, Byte> types = new HashMap<Integer, Byte>();
+	protected List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+	protected long recordCount = 0;
+
+	//Sparse index; timeStamps holds the highest timestamp seen up to and
+	//including each entry, so that it can be binary searched even if
+	//records were written slightly out of order
+	protected long[] indexTimeStamps = new long[16];
+	protected int[] indexSegments = new int[16];
+	protected int[] indexOffsets = new int[16];
+	protected int indexSize = 0;
+
+	protected int segment;
+	protected MappedByteBuffer buffer;
+	protected int id;
+	protected byte type;
+	protected long timeStamp;
+	protected long bits;
+	protected int stringOffset;
+	protected int stringLength;
+
+	public RecordingReader(File directory, String prefix) throws IOException{
+		this(directory, prefix, DEFAULT_INDEX_INTERVAL);
+	}
+
+	public RecordingReader(File directory, String prefix, int indexInterval)
+			throws IOException{
+		if(indexInterval < 1){
+			throw new IllegalArgumentException("indexInterval must be positive");
+		}
+		this.directory = directory;
+		this.prefix = prefix;
+		readNames();
+		for(int i = 0; ; i++){
+			File file = RecordFormat.segmentFile(directory, prefix, i);
+			if(!file.exists()){
+				break;
+			}
+			try(RandomAccessFile raf = new RandomAccessFile(file, "r")){
+				MappedByteBuffer mapped = raf.getChannel().map(
+						FileChannel.MapMode.READ_ONLY, 0, raf.length());
+				if(mapped.remaining() < RecordFormat.HEADER_SIZE ||
+						mapped.getInt() != RecordFormat.MAGIC ||
+						mapped.getInt() != RecordFormat.VERSION){
+					throw new IOException("Not a recording segment: " + file);
+				}
+				segments.add(mapped);
+			}
+		}
+		if(segments.isEmpty()){
+			throw new IOException("No recording segments found for " + prefix +
+					" in " + directory);
+		}
+		buildIndex(indexInterval);
+		rewind();
+	}
+
+	protected void readNames() throws IOException{
+		File file = RecordFormat.namesFile(directory, prefix);
+		try(BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8))){
+			String line;
+			while((line = in.readLine()) != null){
+				int tab = line.indexOf('\t');
+				if(tab > 0){
+					names.put(Integer.parseInt(line.substring(0, tab)),
+							RecordFormat.unescapeName(line.substring(tab + 1)));
+				}
+			}
+		}
+	}
+
+	protected void buildIndex(int interval) throws IOException{
+		rewind();
+		long maxTimeStamp = Long.MIN_VALUE;
+		while(true){
+			int recordSegment = segment;
+			int recordOffset = buffer.position();
+			if(!next()){
+				break;
+			}
+			maxTimeStamp = Math.max(maxTimeStamp, timeStamp);
+			if(recordCount % interval == 0){
+				addIndexEntry(maxTimeStamp, recordSegment, recordOffset);
+			}
+			recordCount++;
+			if(id != RecordFormat.STATE_ID && type != RecordFormat.TYPE_NULL &&
+					!types.containsKey(id)){
+				types.put(id, type);
+			}
+		}
+	}
+
+	protected void addIndexEntry(long time, int entrySegment, int offset){
+		if(indexSize == indexTimeStamps.length){
+			int length = indexSize * 2;
+			indexTimeStamps = Arrays.copyOf(indexTimeStamps, length);
+			indexSegments = Arrays.copyOf(indexSegments, length);
+			indexOffsets = Arrays.copyOf(indexOffsets, length);
+		}
+		indexTimeStamps[indexSize] = time;
+		indexSegments[indexSize] = entrySegment;
+		indexOffsets[indexSize] = offset;
+		indexSize++;
+	}
+
+	public void rewind(){
+		setPosition(0, RecordFormat.HEADER_SIZE);
+	}
+
+	//Positions the reader so that the next record returned is the first one
+	//with a timestamp of at least timeStamp; returns false if there is none
+	public boolean seek(long timeStamp) throws IOException{
+		seekIndexEntry(timeStamp);
+		while(true){
+			int recordSegment = segment;
+			int recordOffset = buffer.position();
+			if(!next()){
+				return false;
+			}
+			if(this.timeStamp >= timeStamp){
+				setPosition(recordSegment, recordOffset);
+				return true;
+			}
+		}
+	}
+
+	//Positions the reader at the last index entry before timeStamp, so that
+	//every record from timeStamp on is still ahead
+	public void seekIndexEntry(long timeStamp){
+		if(indexSize == 0){
+			//No records
+			rewind();
+			return;
+		}
+		int low = 0;
+		int high = indexSize - 1;
+		int entry = 0;
+		while(low <= high){
+			int mid = (low + high) >>> 1;
+			if(indexTimeStamps[mid] < timeStamp){
+				entry = mid;
+				low = mid + 1;
+			}
+			else{
+				high = mid - 1;
+			}
+		}
+		setPosition(indexSegments[entry], indexOffsets[entry]);
+	}
+
+	protected void setPosition(int newSegment, int offset){
+		segment = newSegment;
+		buffer = segments.get(segment);
+		buffer.position(offset);
+	}
+
+	//Throws an IOException if a record runs past the end of its segment or
+	//has an unknown type, i.e. the segment is truncated or corrupt
+	public boolean next() throws IOException{
+		while(true){
+			if(buffer.remaining() >= RecordFormat.RECORD_HEADER_SIZE){
+				int position = buffer.position();
+				int nextId = buffer.getInt();
+				if(nextId != RecordFormat.END_ID){
+					id = nextId;
+					type = buffer.get();
+					timeStamp = buffer.getLong();
+					if(type == RecordFormat.TYPE_STRING){
+						if(buffer.remaining() < 4){
+							throw corrupt(position);
+						}
+						stringLength = buffer.getInt();
+						if(stringLength < 0 || stringLength > buffer.remaining()){
+							throw corrupt(position);
+						}
+						stringOffset = buffer.position();
+						buffer.position(stringOffset + stringLength);
+					}
+					else if(type != RecordFormat.TYPE_NULL){
+						if(type < RecordFormat.TYPE_INT || type > RecordFormat.TYPE_BOOLEAN ||
+								buffer.remaining() < 8){
+							throw corrupt(position);
+						}
+						bits = buffer.getLong();
+					}
+					return true;
+				}
+				buffer.position(position);
+			}
+			if(segment + 1 >= segments.size()){
+				return false;
+			}
+			setPosition(segment + 1, RecordFormat.HEADER_SIZE);
+		}
+	}
+
+	protected IOException corrupt(int position){
+		//Leave the reader before the bad record
+		buffer.position(position);
+		return new IOException("Truncated or corrupt record at offset " + position +
+				" of " + RecordFormat.segmentFile(directory, prefix, segment));
+	}
+
+	public int getId(){
+		return id;
+	}
+
+	public byte getType(){
+		return type;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	//The raw bits of an INT, LONG, DOUBLE or BOOLEAN value
+	public long getBits(){
+		return bits;
+	}
+
+	public String getString(){
+		byte[] bytes = new byte[stringLength];
+		for(int i = 0; i < stringLength; i++){
+			bytes[i] = buffer.get(stringOffset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public Object getValue(){
+		switch(type){
+			case RecordFormat.TYPE_INT:
+				return (int) bits;
+			case RecordFormat.TYPE_LONG:
+				return bits;
+			case RecordFormat.TYPE_DOUBLE:
+				return Double.longBitsToDouble(bits);
+			case RecordFormat.TYPE_BOOLEAN:
+				return bits != 0;
+			case RecordFormat.TYPE_STRING:
+				return getString();
+			default:
+				return null;
+		}
+	}
+
+	public boolean isExecutionState(){
+		return id == RecordFormat.STATE_ID;
+	}
+
+	public String getName(int id){
+		return names.get(id);
+	}
+
+	public Map<Integer, String> getNames(){
+		return Collections.unmodifiableMap(names);
+	}
+
+	//The type of the first non-null value recorded for the id, or TYPE_NULL
+	public byte getRecordedType(int id){
+		Byte b = types.get(id);
+		return b == null ? RecordFormat.TYPE_NULL : b;
+	}
+
+	public long getRecordCount(){
+		return recordCount;
+	}
+
+	@Override
+	public void close(){
+		segments.clear();
+		buffer = null;
+	}
+}
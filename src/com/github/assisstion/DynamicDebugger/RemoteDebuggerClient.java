@@ -0,0 +1,272 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Connects to a RemoteSink and passes what it receives on to local
+//updatables, such as a DebuggerPanel (see openFrame) or a LatestValueSink
+//resumeExecution is sent back to the remote Debugger
+//When the connection fails, it is closed, the updatables are told the
+//execution state is "Disconnected" and the error is kept (see getFailure)
+public class RemoteDebuggerClient implements DebugInformationReceiver, Closeable{
+
+	protected InetSocketAddress address;
+	protected SocketChannel channel;
+	protected Thread thread;
+	protected volatile boolean running = false;
+	protected Set<DebuggerUpdatable> updatables =
+			new CopyOnWriteArraySet<DebuggerUpdatable>();
+	protected volatile int skips = 0;
+	protected volatile IOException failure;
+	protected Object writeLock = new Object();
+	//Sends commands, so that callers such as the panel's Resume button on
+	//the event dispatch thread never wait on the network; its thread stops
+	//when idle
+	protected ThreadPoolExecutor sender = new ThreadPoolExecutor(1, 1,
+			1000, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+			new DispatchExecutor.DispatchThreadFactory("DynamicDebugger-remote-client-sender"));
+
+	//Only accessed on the reading thread
+	protected Map<Integer, String> names = new HashMap<Integer, String>();
+	protected Map<Integer, String> values = new HashMap<Integer, String>();
+	protected Map<String, String> table;
+
+	public RemoteDebuggerClient(String host, int port){
+		this(new InetSocketAddress(host, port));
+	}
+
+	public RemoteDebuggerClient(InetSocketAddress address){
+		this.address = address;
+		sender.allowCoreThreadTimeOut(true);
+	}
+
+	//Opens a DebuggerPanel in a new window and connects it to the RemoteSink
+	public static RemoteDebuggerClient openFrame(String host, int port) throws IOException{
+		RemoteDebuggerClient client = new RemoteDebuggerClient(host, port);
+		DebuggerPanel.openRemoteFrame(client);
+		client.connect();
+		return client;
+	}
+
+	public boolean addUpdatable(DebuggerUpdatable updatable){
+		return updatables.add(updatable);
+	}
+
+	public boolean removeUpdatable(DebuggerUpdatable updatable){
+		return updatables.remove(updatable);
+	}
+
+	//Connects and starts receiving on a new thread
+	public synchronized void connect() throws IOException{
+		if(running){
+			return;
+		}
+		channel = SocketChannel.open(address);
+		channel.socket().setTcpNoDelay(true);
+		ByteBuffer magic = ByteBuffer.allocate(4);
+		readFully(magic);
+		if(magic.getInt(0) != WireProtocol.MAGIC){
+			channel.close();
+			throw new IOException("Not a RemoteSink: " + address);
+		}
+		names.clear();
+		values.clear();
+		failure = null;
+		running = true;
+		thread = new Thread(this::run, "DynamicDebugger-remote-client");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public boolean isConnected(){
+		return running;
+	}
+
+	//The error that ended the last connection, or null if it is still open
+	//or was closed
+	public IOException getFailure(){
+		return failure;
+	}
+
+	//Sent in the background; ignored while not connected
+	@Override
+	public void resumeExecution(int count){
+		SocketChannel c;
+		synchronized(this){
+			if(!running){
+				return;
+			}
+			c = channel;
+		}
+		WireProtocol.Output output = new WireProtocol.Output();
+		output.beginFrame();
+		output.writeByte(WireProtocol.RESUME);
+		output.writeSignedVarLong(count);
+		output.endFrame();
+		ByteBuffer buffer = output.take();
+		sender.execute(() -> send(c, buffer));
+	}
+
+	protected void send(SocketChannel c, ByteBuffer buffer){
+		synchronized(writeLock){
+			try{
+				while(buffer.hasRemaining()){
+					c.write(buffer);
+				}
+			}
+			catch(IOException e){
+				disconnected(c, e);
+			}
+		}
+	}
+
+	//The skip count last reported by the remote Debugger
+	@Override
+	public int getSkipCount(){
+		return skips;
+	}
+
+	protected void run(){
+		ByteBuffer length = ByteBuffer.allocate(4);
+		try{
+			while(running){
+				length.clear();
+				readFully(length);
+				int size = length.getInt(0);
+				if(size < 0 || size > WireProtocol.MAX_FRAME_SIZE){
+					throw new IOException("Malformed frame");
+				}
+				ByteBuffer frame = ByteBuffer.allocate(size);
+				readFully(frame);
+				frame.flip();
+				while(frame.hasRemaining()){
+					receive(frame);
+				}
+			}
+		}
+		catch(IOException e){
+			disconnected(e);
+		}
+		catch(RuntimeException e){
+			//A malformed message, or an updatable that threw
+			disconnected(new IOException("Failed to handle a message", e));
+		}
+		finally{
+			running = false;
+		}
+	}
+
+	//Does nothing if the connection was already closed
+	//A failed write on an earlier connection does not end the current one
+	protected synchronized void disconnected(SocketChannel c, IOException e){
+		if(c == channel){
+			disconnected(e);
+		}
+	}
+
+	protected synchronized void disconnected(IOException e){
+		if(!running){
+			return;
+		}
+		running = false;
+		failure = e;
+		try{
+			channel.close();
+		}
+		catch(IOException ce){
+			//The connection is gone either way
+		}
+		for(DebuggerUpdatable du : updatables){
+			du.setExecutionState("Disconnected");
+		}
+	}
+
+	protected void readFully(ByteBuffer buffer) throws IOException{
+		while(buffer.hasRemaining()){
+			if(channel.read(buffer) < 0){
+				throw new EOFException();
+			}
+		}
+	}
+
+	protected void receive(ByteBuffer frame) throws IOException{
+		byte type = frame.get();
+		switch(type){
+			case WireProtocol.DEFINE:
+				names.put(WireProtocol.readVarInt(frame), WireProtocol.readString(frame));
+				break;
+			case WireProtocol.VALUE:{
+				int id = WireProtocol.readVarInt(frame);
+				received(id, WireProtocol.readString(frame));
+				break;
+			}
+			case WireProtocol.DELTA:{
+				int id = WireProtocol.readVarInt(frame);
+				long delta = WireProtocol.readSignedVarLong(frame);
+				received(id, Long.toString(Long.parseLong(values.get(id)) + delta));
+				break;
+			}
+			case WireProtocol.REMOVE:{
+				int id = WireProtocol.readVarInt(frame);
+				values.remove(id);
+				for(DebuggerUpdatable du : updatables){
+					du.push(names.get(id), null);
+				}
+				break;
+			}
+			case WireProtocol.TABLE_BEGIN:
+				table = new LinkedHashMap<String, String>();
+				break;
+			case WireProtocol.TABLE_END:
+				for(DebuggerUpdatable du : updatables){
+					du.update(table);
+				}
+				table = null;
+				break;
+			case WireProtocol.STATE:{
+				String state = WireProtocol.readString(frame);
+				skips = (int) WireProtocol.readSignedVarLong(frame);
+				for(DebuggerUpdatable du : updatables){
+					du.setExecutionState(state);
+				}
+				break;
+			}
+			default:
+				throw new IOException("Unknown message " + type);
+		}
+	}
+
+	protected void received(int id, String value){
+		values.put(id, value);
+		String name = names.get(id);
+		if(table != null){
+			table.put(name, value);
+			return;
+		}
+		for(DebuggerUpdatable du : updatables){
+			du.push(name, value);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException{
+		running = false;
+		if(channel != null){
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,535 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Streams the updates of a Debugger to RemoteDebuggerClients (see WireProtocol)
+//push, update and setExecutionState only record the latest value for each
+//viewer and wake the network thread, so they never block; a viewer that
+//reads slowly gets fewer, larger batches with only the latest value of
+//each key rather than a backlog
+//Values of variables are kept as LazyValues and only formatted when they
+//are sent, so values replaced in the meantime are never formatted
+//A new viewer is first sent every current value
+//A viewer whose connection fails is closed; if the sink itself fails (its
+//selector does), it stops, closes every viewer and keeps the error (see
+//getFailure)
+public class RemoteSink implements DebuggerUpdatable, Closeable{
+
+	public static final long DEFAULT_BATCH_MILLIS = 20;
+	//Marks a removed key in a viewer's pending changes
+	protected static final String REMOVED = new String("REMOVED");
+
+	protected DebugInformationReceiver receiver;
+	protected long batchNanos;
+	protected Selector selector;
+	protected ServerSocketChannel server;
+	protected Thread thread;
+	protected volatile boolean running = true;
+	protected boolean closed = false;
+	protected volatile IOException failure;
+	protected AtomicBoolean flushRequested = new AtomicBoolean();
+	protected List<Viewer> viewers = new CopyOnWriteArrayList<Viewer>();
+	//Resume commands are run off the network thread, since resuming the
+	//Debugger dispatches the updates held during the pause
+	protected ExecutorService commands = Executors.newSingleThreadExecutor(
+			new DispatchExecutor.DispatchThreadFactory("DynamicDebugger-remote"));
+
+	//Sent to new viewers
+	//Values are Strings or LazyValues
+	protected Map<String, Object> latest = new ConcurrentHashMap<String, Object>();
+	//Guarded by itself
+	protected Map<String, String> latestTable = new HashMap<String, String>();
+	protected volatile String latestState = "Running";
+
+	//Listens on the loopback interface only; give an address to accept
+	//viewers from other hosts
+	public RemoteSink(Debugger<?> debugger, int port) throws IOException{
+		this(debugger, new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+				DEFAULT_BATCH_MILLIS);
+	}
+
+	//Changes are sent at most once every batchMillis
+	public RemoteSink(Debugger<?> debugger, InetSocketAddress address,
+			long batchMillis) throws IOException{
+		receiver = debugger;
+		batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(address);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		thread = new Thread(this::run, "DynamicDebugger-remote-sink");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	//Creates a RemoteSink listening on the port and adds it to the Debugger
+	public static RemoteSink listen(Debugger<?> debugger, int port) throws IOException{
+		RemoteSink sink = new RemoteSink(debugger, port);
+		debugger.addUpdatable(sink);
+		return sink;
+	}
+
+	//Useful when listening on port 0
+	public int getPort(){
+		return server.socket().getLocalPort();
+	}
+
+	public InetAddress getAddress(){
+		return server.socket().getInetAddress();
+	}
+
+	public int getViewerCount(){
+		return viewers.size();
+	}
+
+	public boolean isRunning(){
+		return running;
+	}
+
+	//The error that stopped the sink, or failed to accept the last viewer;
+	//null if there was none
+	public IOException getFailure(){
+		return failure;
+	}
+
+	@Override
+	public void update(Map<String, String> table){
+		synchronized(latestTable){
+			latestTable.clear();
+			latestTable.putAll(table);
+		}
+		for(Viewer viewer : viewers){
+			viewer.offerTable(table);
+		}
+		requestFlush();
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	//A full delta is sent as a table, anything else as individual changes
+	@Override
+	public void update(SupplierDelta delta){
+		if(delta.isFull()){
+			update(delta.getAdded());
+			return;
+		}
+		synchronized(latestTable){
+			latestTable.keySet().removeAll(delta.getRemoved());
+			latestTable.putAll(delta.getAdded());
+			latestTable.putAll(delta.getChanged());
+		}
+		for(Viewer viewer : viewers){
+			for(String key : delta.getRemoved()){
+				viewer.offer(key, REMOVED);
+			}
+			for(Map.Entry<String, String> entry : delta.getAdded().entrySet()){
+				viewer.offer(entry.getKey(), entry.getValue());
+			}
+			for(Map.Entry<String, String> entry : delta.getChanged().entrySet()){
+				viewer.offer(entry.getKey(), entry.getValue());
+			}
+		}
+		requestFlush();
+	}
+
+	@Override
+	public void push(String key, String value){
+		if(value == null){
+			latest.remove(key);
+		}
+		else{
+			latest.put(key, value);
+		}
+		for(Viewer viewer : viewers){
+			viewer.offer(key, value == null ? REMOVED : value);
+		}
+		requestFlush();
+	}
+
+	@Override
+	public void pushLazy(String key, LazyValue value){
+		latest.put(key, value);
+		for(Viewer viewer : viewers){
+			viewer.offer(key, value);
+		}
+		requestFlush();
+	}
+
+	@Override
+	public void setExecutionState(String state){
+		latestState = state;
+		for(Viewer viewer : viewers){
+			viewer.offerState();
+		}
+		requestFlush();
+	}
+
+	protected void requestFlush(){
+		if(!viewers.isEmpty() && flushRequested.compareAndSet(false, true)){
+			selector.wakeup();
+		}
+	}
+
+	protected void run(){
+		long lastFlush = System.nanoTime() - batchNanos;
+		while(running){
+			try{
+				long timeout = 0;
+				if(flushRequested.get()){
+					long wait = lastFlush + batchNanos - System.nanoTime();
+					timeout = wait <= 0 ? -1 : Math.max(1,
+							TimeUnit.NANOSECONDS.toMillis(wait));
+				}
+				if(timeout < 0){
+					selector.selectNow();
+				}
+				else{
+					selector.select(timeout);
+				}
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while(it.hasNext()){
+					SelectionKey key = it.next();
+					it.remove();
+					if(!key.isValid()){
+						continue;
+					}
+					if(key.isAcceptable()){
+						try{
+							accept();
+						}
+						catch(IOException e){
+							//Only this viewer is lost
+							failure = e;
+						}
+					}
+					else{
+						Viewer viewer = (Viewer) key.attachment();
+						try{
+							if(key.isReadable()){
+								viewer.read();
+							}
+							if(key.isValid() && key.isWritable()){
+								viewer.write();
+							}
+						}
+						catch(IOException | RuntimeException e){
+							viewer.close();
+						}
+					}
+				}
+				long now = System.nanoTime();
+				if(flushRequested.get() && now - lastFlush >= batchNanos){
+					flushRequested.set(false);
+					lastFlush = now;
+					for(Viewer viewer : viewers){
+						try{
+							viewer.flush();
+						}
+						catch(IOException | RuntimeException e){
+							viewer.close();
+						}
+					}
+				}
+			}
+			catch(IOException e){
+				//The selector is broken, so nothing can be sent any more
+				failure = e;
+				running = false;
+			}
+		}
+		for(Viewer viewer : viewers){
+			viewer.close();
+		}
+	}
+
+	protected void accept() throws IOException{
+		SocketChannel channel = server.accept();
+		if(channel == null){
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Viewer viewer = this.new Viewer(channel);
+		viewer.key = channel.register(selector, SelectionKey.OP_READ, viewer);
+		viewers.add(viewer);
+		//Values offered from now on are newer than the ones copied here
+		viewer.resync();
+		flushRequested.set(true);
+	}
+
+	protected class Viewer{
+
+		protected SocketChannel channel;
+		protected SelectionKey key;
+
+		//Guarded by this; the latest changes not yet encoded
+		protected Map<String, Object> pending = new LinkedHashMap<String, Object>();
+		protected Map<String, String> pendingTable;
+		protected boolean pendingState = false;
+
+		//Only accessed on the network thread
+		protected Map<String, Integer> ids = new HashMap<String, Integer>();
+		protected Map<String, String> sent = new HashMap<String, String>();
+		protected WireProtocol.Output output = new WireProtocol.Output();
+		protected ByteBuffer out;
+		protected ByteBuffer in = ByteBuffer.allocate(256);
+
+		public Viewer(SocketChannel channel){
+			this.channel = channel;
+			output.writeByte((byte) (WireProtocol.MAGIC >>> 24));
+			output.writeByte((byte) (WireProtocol.MAGIC >>> 16));
+			output.writeByte((byte) (WireProtocol.MAGIC >>> 8));
+			output.writeByte((byte) WireProtocol.MAGIC);
+		}
+
+		public synchronized void offer(String key, Object value){
+			pending.put(key, value);
+		}
+
+		//The table is newer than any pending change of the same keys
+		public synchronized void offerTable(Map<String, String> table){
+			pending.keySet().removeAll(table.keySet());
+			pendingTable = table;
+		}
+
+		public synchronized void offerState(){
+			pendingState = true;
+		}
+
+		public synchronized void resync(){
+			for(Map.Entry<String, Object> entry : latest.entrySet()){
+				pending.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+			if(pendingTable == null){
+				synchronized(latestTable){
+					if(!latestTable.isEmpty()){
+						pendingTable = new HashMap<String, String>(latestTable);
+					}
+				}
+			}
+			pendingState = true;
+		}
+
+		//Encodes the pending changes, unless the viewer has not yet read the
+		//previous batch, in which case they keep being merged
+		public void flush() throws IOException{
+			if(out == null || !out.hasRemaining()){
+				Map<String, Object> changes;
+				Map<String, String> table;
+				boolean state;
+				synchronized(this){
+					if(pending.isEmpty() && pendingTable == null && !pendingState &&
+							output.isEmpty()){
+						return;
+					}
+					changes = pending;
+					pending = new LinkedHashMap<String, Object>();
+					table = pendingTable;
+					pendingTable = null;
+					state = pendingState;
+					pendingState = false;
+				}
+				encode(changes, table, state);
+				out = output.take();
+			}
+			write();
+		}
+
+		//Messages are split into frames of about half MAX_FRAME_SIZE; a table
+		//may span several frames, since the client collects its values from
+		//TABLE_BEGIN to TABLE_END whatever the frames
+		protected void encode(Map<String, Object> changes, Map<String, String> table,
+				boolean state){
+			output.beginFrame();
+			if(table != null){
+				output.writeByte(WireProtocol.TABLE_BEGIN);
+				for(Map.Entry<String, String> entry : table.entrySet()){
+					splitFrame();
+					define(entry.getKey());
+					value(entry.getKey(), entry.getValue());
+				}
+				output.writeByte(WireProtocol.TABLE_END);
+			}
+			for(Map.Entry<String, Object> entry : changes.entrySet()){
+				splitFrame();
+				String name = entry.getKey();
+				String text = entry.getValue().toString();
+				if(entry.getValue() == REMOVED){
+					Integer id = ids.get(name);
+					if(id != null && sent.remove(name) != null){
+						output.writeByte(WireProtocol.REMOVE);
+						output.writeVarLong(id);
+					}
+				}
+				else if(!text.equals(sent.get(name))){
+					define(name);
+					value(name, text);
+				}
+			}
+			if(state){
+				output.writeByte(WireProtocol.STATE);
+				output.writeString(latestState);
+				output.writeSignedVarLong(receiver.getSkipCount());
+			}
+			output.endFrame();
+		}
+
+		protected void splitFrame(){
+			if(output.frameSize() > WireProtocol.MAX_FRAME_SIZE / 2){
+				output.endFrame();
+				output.beginFrame();
+			}
+		}
+
+		protected void define(String name){
+			if(!ids.containsKey(name)){
+				int id = ids.size() + 1;
+				ids.put(name, id);
+				output.writeByte(WireProtocol.DEFINE);
+				output.writeVarLong(id);
+				output.writeString(name);
+			}
+		}
+
+		//Sends the difference to the previous value when both are longs
+		protected void value(String name, String value){
+			if(value == null){
+				value = "null";
+			}
+			int id = ids.get(name);
+			String previous = sent.put(name, value);
+			Long last = WireProtocol.parseLong(previous);
+			Long next = last == null ? null : WireProtocol.parseLong(value);
+			if(next != null){
+				output.writeByte(WireProtocol.DELTA);
+				output.writeVarLong(id);
+				output.writeSignedVarLong(next - last);
+			}
+			else{
+				output.writeByte(WireProtocol.VALUE);
+				output.writeVarLong(id);
+				output.writeString(value);
+			}
+		}
+
+		public void write() throws IOException{
+			if(out != null && out.hasRemaining()){
+				channel.write(out);
+			}
+			boolean blocked = out != null && out.hasRemaining();
+			key.interestOps(blocked ? SelectionKey.OP_READ | SelectionKey.OP_WRITE :
+				SelectionKey.OP_READ);
+			if(!blocked){
+				synchronized(this){
+					if(!pending.isEmpty() || pendingTable != null || pendingState){
+						//Changes merged while the viewer was behind
+						flushRequested.set(true);
+					}
+				}
+			}
+		}
+
+		public void read() throws IOException{
+			if(channel.read(in) < 0){
+				close();
+				return;
+			}
+			in.flip();
+			while(in.remaining() >= 4){
+				int length = in.getInt(in.position());
+				if(length < 0 || length > WireProtocol.MAX_FRAME_SIZE){
+					throw new IOException("Malformed frame");
+				}
+				if(in.remaining() < 4 + length){
+					if(4 + length > in.capacity()){
+						ByteBuffer larger = ByteBuffer.allocate(4 + length);
+						larger.put(in);
+						in = larger;
+						return;
+					}
+					break;
+				}
+				in.getInt();
+				int end = in.position() + length;
+				while(in.position() < end){
+					command(in);
+				}
+			}
+			in.compact();
+		}
+
+		protected void command(ByteBuffer frame) throws IOException{
+			byte type = frame.get();
+			if(type == WireProtocol.RESUME){
+				int count = (int) WireProtocol.readSignedVarLong(frame);
+				commands.execute(() -> {
+					receiver.resumeExecution(count);
+					//The skip count changed even if the state did not
+					setExecutionState(latestState);
+				});
+			}
+			else{
+				throw new IOException("Unknown command " + type);
+			}
+		}
+
+		public void close(){
+			viewers.remove(this);
+			key.cancel();
+			try{
+				channel.close();
+			}
+			catch(IOException e){
+				//The viewer is gone either way
+			}
+		}
+
+	}
+
+	@Override
+	public void close() throws IOException{
+		synchronized(this){
+			if(closed){
+				return;
+			}
+			closed = true;
+		}
+		running = false;
+		selector.wakeup();
+		try{
+			thread.join();
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		commands.shutdown();
+		server.close();
+		selector.close();
+	}
+}
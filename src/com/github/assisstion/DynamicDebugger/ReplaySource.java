@@ -0,0 +1,418 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//Replays a recording written by ChangeRecorder into a Debugger, as if the
+//recorded variables were changing live
+//Each recorded name gets a variable of the recorded type (an Int, Long or
+//DoubleDynamicVariableHolder, or a DynamicVariableHolder for anything else),
+//attached to the Debugger when the replay starts; variables recorded under
+//the same name (which the Debugger showed as one) share the variable created
+//for the first of them, and their names are reported by getDuplicateNames
+//Events are replayed on their own thread at the recorded pace scaled by the
+//speed, or as fast as possible with MAXIMUM_SPEED
+//Breakpoints (and, by default, the points where the recorded session was
+//paused) call pause() on the Debugger from the replay thread, so the replay
+//waits until resume() or resumeExecution() is called, like a live program;
+//stop() and close() resume the Debugger if the replay is paused there
+public class ReplaySource implements Closeable{
+
+	public static final double REAL_TIME = 1.0;
+	public static final double MAXIMUM_SPEED = Double.POSITIVE_INFINITY;
+
+	protected static final long NO_SEEK = Long.MIN_VALUE;
+	//Milliseconds between checks of stop() for a replay paused at a breakpoint
+	protected static final long STOP_CHECK_INTERVAL = 100;
+
+	protected RecordingReader reader;
+	protected Debugger<Object> debugger;
+	protected Map<Integer, DynamicVariable<?>> variables =
+			new HashMap<Integer, DynamicVariable<?>>();
+	protected Map<String, DynamicVariable<?>> variablesByName =
+			new HashMap<String, DynamicVariable<?>>();
+	protected Set<String> duplicateNames = new TreeSet<String>();
+	protected Set<String> breakpoints = ConcurrentHashMap.newKeySet();
+	protected volatile boolean pauseOnRecordedPauses = true;
+
+	protected volatile double speed = REAL_TIME;
+	protected volatile long seekTarget = NO_SEEK;
+	protected volatile boolean running = false;
+	protected volatile boolean finished = false;
+	protected volatile long currentTimeStamp = NO_SEEK;
+	//The error that stopped the replay, or null if there was none
+	protected volatile IOException failure;
+	//Set while the replay thread is in debugger.pause()
+	protected volatile boolean pausing = false;
+	protected Thread thread;
+	//The record read last was not replayed because the replay stopped
+	protected boolean unreplayed = false;
+
+	//Timing of the replay thread: the record with timestamp recordBase was
+	//due at wallBase (System.nanoTime())
+	protected long recordBase;
+	protected long wallBase;
+	protected double baseSpeed;
+	protected boolean based = false;
+
+	public ReplaySource(File directory, String prefix, Debugger<Object> debugger)
+			throws IOException{
+		this(new RecordingReader(directory, prefix), debugger);
+	}
+
+	public ReplaySource(RecordingReader reader, Debugger<Object> debugger){
+		this.reader = reader;
+		this.debugger = debugger;
+		for(Map.Entry<Integer, String> entry : reader.getNames().entrySet()){
+			DynamicVariable<?> variable = variablesByName.get(entry.getValue());
+			if(variable == null){
+				variable = createVariable(entry.getValue(),
+						reader.getRecordedType(entry.getKey()));
+				variablesByName.put(entry.getValue(), variable);
+			}
+			else{
+				duplicateNames.add(entry.getValue());
+			}
+			variables.put(entry.getKey(), variable);
+		}
+	}
+
+	protected DynamicVariable<?> createVariable(String name, byte type){
+		switch(type){
+			case RecordFormat.TYPE_INT:
+				return new IntDynamicVariableHolder(name);
+			case RecordFormat.TYPE_LONG:
+				return new LongDynamicVariableHolder(name);
+			case RecordFormat.TYPE_DOUBLE:
+				return new DoubleDynamicVariableHolder(name);
+			default:
+				return new DynamicVariableHolder<Object>(name);
+		}
+	}
+
+	//Attaches the variables and starts replaying from the current position
+	public synchronized void start(){
+		if(running){
+			return;
+		}
+		for(DynamicVariable<?> variable : variablesByName.values()){
+			debugger.attach(variable);
+		}
+		running = true;
+		finished = false;
+		thread = new Thread(this::replayLoop, "DynamicDebugger-replay");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	//Stops replaying; start() continues from where it stopped
+	//If the replay is paused at a breakpoint, the Debugger is resumed
+	public void stop(){
+		Thread t;
+		synchronized(this){
+			running = false;
+			t = thread;
+		}
+		if(t != null && t != Thread.currentThread()){
+			LockSupport.unpark(t);
+			try{
+				//The replay may enter a pause just after the check
+				while(t.isAlive()){
+					if(pausing){
+						debugger.resume();
+					}
+					t.join(STOP_CHECK_INTERVAL);
+				}
+			}
+			catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	//Waits until the end of the recording has been replayed
+	public void awaitFinished() throws InterruptedException{
+		Thread t;
+		synchronized(this){
+			t = thread;
+		}
+		if(t != null){
+			t.join();
+		}
+	}
+
+	//Continues from the first record at or after timeStamp; the records from
+	//the closest index entry before it up to timeStamp are replayed at maximum
+	//speed on the way, so variables that changed there are up to date
+	public void seek(long timeStamp){
+		seekTarget = timeStamp;
+		Thread t = thread;
+		if(t != null){
+			LockSupport.unpark(t);
+		}
+	}
+
+	//1.0 (REAL_TIME) replays at the recorded pace, 2.0 twice as fast, and
+	//MAXIMUM_SPEED without waiting between records
+	public void setSpeed(double speed){
+		if(!(speed > 0)){
+			throw new IllegalArgumentException("speed must be positive");
+		}
+		this.speed = speed;
+		Thread t = thread;
+		if(t != null){
+			LockSupport.unpark(t);
+		}
+	}
+
+	public double getSpeed(){
+		return speed;
+	}
+
+	//Pauses the Debugger before replaying a change of the variable with the name
+	public void addBreakpoint(String name){
+		breakpoints.add(name);
+	}
+
+	public void removeBreakpoint(String name){
+		breakpoints.remove(name);
+	}
+
+	public void setPauseOnRecordedPauses(boolean pause){
+		pauseOnRecordedPauses = pause;
+	}
+
+	public boolean isPauseOnRecordedPauses(){
+		return pauseOnRecordedPauses;
+	}
+
+	public DynamicVariable<?> getVariable(String name){
+		return variablesByName.get(name);
+	}
+
+	public Map<String, DynamicVariable<?>> getVariables(){
+		return Collections.unmodifiableMap(variablesByName);
+	}
+
+	//Names recorded for more than one variable
+	public Set<String> getDuplicateNames(){
+		return Collections.unmodifiableSet(duplicateNames);
+	}
+
+	//The timestamp of the last record replayed, or Long.MIN_VALUE if none
+	public long getCurrentTimeStamp(){
+		return currentTimeStamp;
+	}
+
+	public boolean isRunning(){
+		return running;
+	}
+
+	public boolean isFinished(){
+		return finished;
+	}
+
+	//Set if the replay finished early on a truncated or corrupt record
+	public IOException getFailure(){
+		return failure;
+	}
+
+	public Debugger<Object> getDebugger(){
+		return debugger;
+	}
+
+	protected void replayLoop(){
+		long fastForwardUntil = NO_SEEK;
+		while(running){
+			long target = seekTarget;
+			if(target != NO_SEEK){
+				seekTarget = NO_SEEK;
+				reader.seekIndexEntry(target);
+				fastForwardUntil = target;
+				based = false;
+				unreplayed = false;
+			}
+			if(unreplayed){
+				unreplayed = false;
+			}
+			else if(!next()){
+				finished = true;
+				break;
+			}
+			long time = reader.getTimeStamp();
+			if(time < fastForwardUntil){
+				replay(false);
+				continue;
+			}
+			fastForwardUntil = NO_SEEK;
+			if(!awaitDue(time)){
+				continue;
+			}
+			awaitResume();
+			replay(true);
+		}
+		synchronized(this){
+			running = false;
+			thread = null;
+		}
+	}
+
+	//A corrupt record ends the replay as if it were the end of the recording
+	protected boolean next(){
+		try{
+			return reader.next();
+		}
+		catch(IOException e){
+			failure = e;
+			return false;
+		}
+	}
+
+	//Waits until the record is due; false if a seek was requested or the
+	//replay stopped meanwhile
+	protected boolean awaitDue(long time){
+		if(!based){
+			rebase(time);
+		}
+		while(running){
+			if(seekTarget != NO_SEEK){
+				//The record is replayed again if the seek goes back to it
+				return false;
+			}
+			double s = speed;
+			if(s == MAXIMUM_SPEED){
+				rebase(time);
+				return true;
+			}
+			if(baseSpeed == MAXIMUM_SPEED){
+				rebase(time);
+			}
+			else if(s != baseSpeed){
+				//Keep the replay position when the speed changes
+				long now = System.nanoTime();
+				recordBase += (long) ((now - wallBase) * baseSpeed /
+						TimeUnit.MILLISECONDS.toNanos(1));
+				wallBase = now;
+				baseSpeed = s;
+			}
+			long due = wallBase + (long) ((time - recordBase) *
+					TimeUnit.MILLISECONDS.toNanos(1) / s);
+			long wait = due - System.nanoTime();
+			if(wait <= 0){
+				return true;
+			}
+			LockSupport.parkNanos(this, wait);
+		}
+		//Replayed first when the replay starts again
+		unreplayed = true;
+		return false;
+	}
+
+	//Waits while the Debugger has been paused by something else, such as the
+	//panel, so the replay does not run ahead
+	protected void awaitResume(){
+		if(!debugger.isPaused()){
+			return;
+		}
+		while(running && debugger.isPaused()){
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		based = false;
+	}
+
+	protected void rebase(long time){
+		recordBase = time;
+		wallBase = System.nanoTime();
+		baseSpeed = speed;
+		based = true;
+	}
+
+	//Breakpoints are ignored while fast forwarding to a seek target
+	protected void replay(boolean breakpoint){
+		int id = reader.getId();
+		currentTimeStamp = reader.getTimeStamp();
+		if(reader.isExecutionState()){
+			if(breakpoint && pauseOnRecordedPauses &&
+					"Paused".equals(reader.getString())){
+				pause();
+			}
+			return;
+		}
+		DynamicVariable<?> variable = variables.get(id);
+		if(variable == null){
+			return;
+		}
+		if(breakpoint && !breakpoints.isEmpty() &&
+				breakpoints.contains(variable.getName())){
+			pause();
+		}
+		set(variable);
+	}
+
+	protected void pause(){
+		pausing = true;
+		try{
+			if(running && debugger.pause()){
+				//Do not try to catch up on the time spent paused
+				based = false;
+			}
+		}
+		finally{
+			pausing = false;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void set(DynamicVariable<?> variable){
+		byte type = reader.getType();
+		if(variable instanceof IntDynamicVariableHolder){
+			if(type == RecordFormat.TYPE_DOUBLE){
+				((IntDynamicVariableHolder) variable).set(
+						(int) Double.longBitsToDouble(reader.getBits()));
+			}
+			else if(type != RecordFormat.TYPE_NULL && type != RecordFormat.TYPE_STRING){
+				((IntDynamicVariableHolder) variable).set((int) reader.getBits());
+			}
+		}
+		else if(variable instanceof LongDynamicVariableHolder){
+			if(type == RecordFormat.TYPE_DOUBLE){
+				((LongDynamicVariableHolder) variable).set(
+						(long) Double.longBitsToDouble(reader.getBits()));
+			}
+			else if(type != RecordFormat.TYPE_NULL && type != RecordFormat.TYPE_STRING){
+				((LongDynamicVariableHolder) variable).set(reader.getBits());
+			}
+		}
+		else if(variable instanceof DoubleDynamicVariableHolder){
+			if(type == RecordFormat.TYPE_DOUBLE){
+				((DoubleDynamicVariableHolder) variable).set(
+						Double.longBitsToDouble(reader.getBits()));
+			}
+			else if(type != RecordFormat.TYPE_NULL && type != RecordFormat.TYPE_STRING){
+				((DoubleDynamicVariableHolder) variable).set(reader.getBits());
+			}
+		}
+		else{
+			((DynamicVariableHolder<Object>) variable).set(reader.getValue());
+		}
+	}
+
+	//Stops replaying, unattaches the variables and releases the recording
+	@Override
+	public void close(){
+		stop();
+		for(DynamicVariable<?> variable : variablesByName.values()){
+			debugger.unattach(variable);
+		}
+		reader.close();
+	}
+}
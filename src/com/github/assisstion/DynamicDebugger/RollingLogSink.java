@@ -0,0 +1,188 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Appends every change as a line of UTF-8 text ("time key=value") to a log file
+//Once the file would exceed maxBytes it is renamed to file.1 (file.1 to file.2,
+//and so on) and a new file is started; at most maxFiles old files are kept
+//Suppliers are only logged when their value differs from the last one logged,
+//and removed suppliers are logged with a value of null
+//If writing fails, logging stops and the error is kept (see getFailure) and
+//thrown by close()
+public class RollingLogSink implements DebuggerUpdatable, Closeable{
+
+	public static final long DEFAULT_MAX_BYTES = 10 * 1024 * 1024;
+	public static final int DEFAULT_MAX_FILES = 5;
+
+	protected File file;
+	protected long maxBytes;
+	protected int maxFiles;
+	protected OutputStream output;
+	//Bytes in the current file
+	protected long written;
+	protected Map<String, String> lastLogged = new HashMap<String, String>();
+	protected boolean closed = false;
+	protected volatile IOException failure;
+
+	public RollingLogSink(File file) throws IOException{
+		this(file, DEFAULT_MAX_BYTES, DEFAULT_MAX_FILES);
+	}
+
+	public RollingLogSink(File file, long maxBytes, int maxFiles) throws IOException{
+		if(maxBytes < 1 || maxFiles < 0){
+			throw new IllegalArgumentException(
+					"maxBytes must be positive and maxFiles must not be negative");
+		}
+		this.file = file;
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+		open();
+	}
+
+	//Suppliers that are missing from the map have been removed
+	@Override
+	public synchronized void update(Map<String, String> table){
+		Iterator<String> it = lastLogged.keySet().iterator();
+		while(it.hasNext()){
+			String key = it.next();
+			if(!table.containsKey(key)){
+				it.remove();
+				log(key + "=null");
+			}
+		}
+		for(Map.Entry<String, String> entry : table.entrySet()){
+			if(!entry.getValue().equals(lastLogged.put(entry.getKey(), entry.getValue()))){
+				log(entry.getKey() + "=" + entry.getValue());
+			}
+		}
+		flush();
+	}
+
+	@Override
+	public boolean acceptsDeltas(){
+		return true;
+	}
+
+	@Override
+	public synchronized void update(SupplierDelta delta){
+		if(delta.isFull()){
+			update(delta.getAdded());
+			return;
+		}
+		for(String key : delta.getRemoved()){
+			lastLogged.remove(key);
+			log(key + "=null");
+		}
+		for(Map.Entry<String, String> entry : delta.getAdded().entrySet()){
+			lastLogged.put(entry.getKey(), entry.getValue());
+			log(entry.getKey() + "=" + entry.getValue());
+		}
+		for(Map.Entry<String, String> entry : delta.getChanged().entrySet()){
+			lastLogged.put(entry.getKey(), entry.getValue());
+			log(entry.getKey() + "=" + entry.getValue());
+		}
+		flush();
+	}
+
+	@Override
+	public synchronized void push(String key, String value){
+		log(key + "=" + value);
+		flush();
+	}
+
+	@Override
+	public synchronized void setExecutionState(String state){
+		log("[" + state + "]");
+		flush();
+	}
+
+	protected void log(String line){
+		if(closed || failure != null){
+			return;
+		}
+		try{
+			byte[] text = (System.currentTimeMillis() + " " + line +
+					System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+			if(written > 0 && written + text.length > maxBytes){
+				roll();
+			}
+			output.write(text);
+			written += text.length;
+		}
+		catch(IOException e){
+			failure = e;
+		}
+	}
+
+	protected void flush(){
+		if(closed || failure != null){
+			return;
+		}
+		try{
+			output.flush();
+		}
+		catch(IOException e){
+			failure = e;
+		}
+	}
+
+	//A file that cannot be deleted or renamed stops the sink (see getFailure)
+	protected void roll() throws IOException{
+		output.close();
+		if(maxFiles == 0){
+			Files.deleteIfExists(file.toPath());
+		}
+		else{
+			Files.deleteIfExists(new File(file.getPath() + "." + maxFiles).toPath());
+			for(int i = maxFiles - 1; i >= 1; i--){
+				File old = new File(file.getPath() + "." + i);
+				if(old.exists()){
+					Files.move(old.toPath(), new File(file.getPath() + "." + (i + 1)).toPath(),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(file.toPath(), new File(file.getPath() + ".1").toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		open();
+	}
+
+	protected void open() throws IOException{
+		written = file.length();
+		output = new BufferedOutputStream(new FileOutputStream(file, true));
+	}
+
+	public File getFile(){
+		return file;
+	}
+
+	//The error that stopped logging, or null if there was none
+	public IOException getFailure(){
+		return failure;
+	}
+
+	//Throws the error that stopped logging, if any
+	@Override
+	public synchronized void close() throws IOException{
+		if(!closed){
+			closed = true;
+			output.close();
+			if(failure != null){
+				throw failure;
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//A variable that is updated far more often than it should be shown, such as
+//a counter in a hot loop; updates only touch striped state and never notify
+//listeners; instead, listeners are notified at most once per call to sample,
+//which a Debugger the variable is attached to calls every sampling tick
+//If windowed, every sample starts a new window, and get returns the value
+//of the last complete window instead of the current value
+//If the variable is attached to several Debuggers, only the first of them
+//(see addSampler) samples it, so that each tick is one window; the others
+//see its changes like any listener
+public abstract class SampledDynamicVariable<T> extends AbstractDynamicVariable<T>{
+
+	protected volatile boolean windowed = false;
+	//Written while holding the lock on this
+	protected volatile T published;
+	protected List<Object> samplers = new CopyOnWriteArrayList<Object>();
+
+	public SampledDynamicVariable(String name){
+		super(name);
+	}
+
+	//The current value; if reset, the value starts again for a new window
+	protected abstract T aggregate(boolean reset);
+
+	@Override
+	public T get(){
+		return windowed ? published : aggregate(false);
+	}
+
+	//Publishes the current value, notifying the listeners if it changed
+	public synchronized T sample(){
+		T value = aggregate(windowed);
+		T old = published;
+		published = value;
+		if(!Objects.equals(old, value)){
+			fireChangeListeners(old, value, System.currentTimeMillis());
+		}
+		return value;
+	}
+
+	//Samples the variable if the sampler is the first one added; returns
+	//whether it did
+	public boolean sample(Object sampler){
+		if(samplers.isEmpty() || samplers.get(0) != sampler){
+			return false;
+		}
+		sample();
+		return true;
+	}
+
+	//Called by a Debugger when the variable is attached to it; the next
+	//sampler takes over when the first is removed
+	public void addSampler(Object sampler){
+		samplers.add(sampler);
+	}
+
+	public void removeSampler(Object sampler){
+		samplers.remove(sampler);
+	}
+
+	public void setWindowed(boolean windowed){
+		this.windowed = windowed;
+	}
+
+	public boolean isWindowed(){
+		return windowed;
+	}
+}
@@ -0,0 +1,16 @@
+package com.github.assisstion.DynamicDebugger;
+
+//How often a supplier is sampled, as a multiple of the Debugger's update delay
+public enum SamplingPriority{
+	HIGH(1), NORMAL(4), LOW(16);
+
+	protected int ticks;
+
+	private SamplingPriority(int ticks){
+		this.ticks = ticks;
+	}
+
+	public int getTicks(){
+		return ticks;
+	}
+}
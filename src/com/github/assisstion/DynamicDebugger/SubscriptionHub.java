@@ -0,0 +1,400 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+//Routes the changes of variables to subscribers by the names of the
+//variables, so that a variable has a single listener (the hub) however many
+//subscribers it has, and a subscriber does not need to be added to every
+//variable it wants
+//Subscriptions are by exact name, by prefix, or by glob ('*' matches any
+//characters, '?' matches one); they are kept in a trie of their literal
+//prefixes, which is only walked once per name: the subscribers of a name
+//are kept in an array that is replaced whenever the subscriptions change,
+//so routing a change is one lookup and a loop over the array
+//Subscribers are called on the thread that notifies the hub, in no
+//particular order; they must accept the values of every variable they match
+//A subscriber that throws does not keep the change from the others; its
+//subscription counts the failures and keeps the last one (see
+//Subscription.getFailureCount)
+//Variables themselves, rather than their changes, can be watched by name
+//(see watch), e.g. for a Debugger to attach them (see Debugger.subscribe)
+public class SubscriptionHub{
+
+	public enum Kind{
+		EXACT,
+		PREFIX,
+		GLOB
+	}
+
+	protected static final Subscription[] NONE = new Subscription[0];
+
+	protected Map<DynamicVariable<?>, Boolean> published =
+			new ConcurrentHashMap<DynamicVariable<?>, Boolean>();
+	protected VariableListener<Object> listener = this::route;
+	//Guarded by this
+	protected Node root = new Node();
+	protected int subscriptionCount = 0;
+	//Name to subscribers; replaced by an empty map when the subscriptions
+	//change, and filled again as names are routed
+	protected volatile ConcurrentMap<String, Subscription[]> routes =
+			new ConcurrentHashMap<String, Subscription[]>();
+	//Guarded by watchLock, which is also held while publishing, so that a
+	//watch is told about every variable exactly once
+	protected List<Watch> watches = new ArrayList<Watch>();
+	protected Object watchLock = new Object();
+
+	//Changes of the variable are routed under its name
+	public boolean publish(DynamicVariable<?> variable){
+		synchronized(watchLock){
+			if(published.putIfAbsent(variable, Boolean.TRUE) != null){
+				return false;
+			}
+			cast(variable).addChangeListener(listener);
+			for(Watch watch : watches){
+				watch.published(variable);
+			}
+		}
+		return true;
+	}
+
+	public boolean unpublish(DynamicVariable<?> variable){
+		synchronized(watchLock){
+			if(published.remove(variable) == null){
+				return false;
+			}
+			cast(variable).removeChangeListener(listener);
+			for(Watch watch : watches){
+				watch.unpublished(variable);
+			}
+		}
+		return true;
+	}
+
+	//Tells the listener about every variable published under a name
+	//matching the pattern (as for subscribe): the ones already published
+	//at once, then the ones published and unpublished later; cancelling the
+	//watch tells it that every matching variable has been unpublished
+	//The listener is called while publishing, and must not publish itself
+	public Watch watch(String pattern, PublicationListener watcher){
+		Watch watch = this.new Watch(kindOf(pattern), literalPattern(pattern), watcher);
+		synchronized(watchLock){
+			watches.add(watch);
+			for(DynamicVariable<?> variable : published.keySet()){
+				watch.published(variable);
+			}
+		}
+		return watch;
+	}
+
+	protected boolean unwatch(Watch watch){
+		synchronized(watchLock){
+			if(!watches.remove(watch)){
+				return false;
+			}
+			for(DynamicVariable<?> variable : published.keySet()){
+				watch.unpublished(variable);
+			}
+		}
+		return true;
+	}
+
+	//Any variable can be listened to by a listener of Objects
+	@SuppressWarnings("unchecked")
+	protected static DynamicVariable<Object> cast(DynamicVariable<?> variable){
+		return (DynamicVariable<Object>) variable;
+	}
+
+	//A pattern without wildcards is exact, one whose only wildcard is a
+	//trailing '*' is a prefix, and any other is a glob
+	public Subscription subscribe(String pattern, VariableListener<?> subscriber){
+		return subscribe(kindOf(pattern), literalPattern(pattern), subscriber);
+	}
+
+	protected static Kind kindOf(String pattern){
+		int star = pattern.indexOf('*');
+		if(star < 0 && pattern.indexOf('?') < 0){
+			return Kind.EXACT;
+		}
+		if(star == pattern.length() - 1 && pattern.indexOf('?') < 0){
+			return Kind.PREFIX;
+		}
+		return Kind.GLOB;
+	}
+
+	//The pattern as given to subscribe(Kind, ...): a prefix loses its '*'
+	protected static String literalPattern(String pattern){
+		return kindOf(pattern) == Kind.PREFIX ?
+				pattern.substring(0, pattern.length() - 1) : pattern;
+	}
+
+	public synchronized Subscription subscribe(Kind kind, String pattern,
+			VariableListener<?> subscriber){
+		Subscription subscription = this.new Subscription(kind, pattern, subscriber);
+		Node node = root;
+		for(int i = 0; i < subscription.literal.length(); i++){
+			node = node.child(subscription.literal.charAt(i), true);
+		}
+		node.subscriptions(kind).add(subscription);
+		subscriptionCount++;
+		routes = new ConcurrentHashMap<String, Subscription[]>();
+		return subscription;
+	}
+
+	protected synchronized boolean unsubscribe(Subscription subscription){
+		Node node = root;
+		for(int i = 0; i < subscription.literal.length() && node != null; i++){
+			node = node.child(subscription.literal.charAt(i), false);
+		}
+		if(node == null || !node.subscriptions(subscription.kind).remove(subscription)){
+			return false;
+		}
+		subscriptionCount--;
+		routes = new ConcurrentHashMap<String, Subscription[]>();
+		return true;
+	}
+
+	public synchronized int getSubscriptionCount(){
+		return subscriptionCount;
+	}
+
+	public Set<DynamicVariable<?>> getPublished(){
+		return published.keySet();
+	}
+
+	protected void route(VariableChangeEvent<?> e){
+		String name = e.getSource().getName();
+		ConcurrentMap<String, Subscription[]> current = routes;
+		Subscription[] subscriptions = current.get(name);
+		if(subscriptions == null){
+			subscriptions = match(name);
+			current.putIfAbsent(name, subscriptions);
+		}
+		for(Subscription subscription : subscriptions){
+			try{
+				subscription.deliver(e);
+			}
+			catch(RuntimeException re){
+				subscription.failed(re);
+			}
+		}
+	}
+
+	//The subscriptions matching the name, found by walking the trie along it
+	protected synchronized Subscription[] match(String name){
+		List<Subscription> matches = new ArrayList<Subscription>();
+		Node node = root;
+		int i = 0;
+		while(true){
+			matches.addAll(node.prefix);
+			for(Subscription glob : node.glob){
+				if(glob.regex.matcher(name).matches()){
+					matches.add(glob);
+				}
+			}
+			if(i == name.length()){
+				matches.addAll(node.exact);
+				break;
+			}
+			node = node.child(name.charAt(i++), false);
+			if(node == null){
+				break;
+			}
+		}
+		return matches.isEmpty() ? NONE : matches.toArray(new Subscription[matches.size()]);
+	}
+
+	public class Subscription{
+
+		protected Kind kind;
+		protected String pattern;
+		//The part of the pattern before any wildcard; its place in the trie
+		protected String literal;
+		protected Pattern regex;
+		protected VariableListener<Object> subscriber;
+		protected LongAdder failures = new LongAdder();
+		protected volatile RuntimeException lastFailure;
+
+		@SuppressWarnings("unchecked")
+		protected Subscription(Kind kind, String pattern, VariableListener<?> subscriber){
+			this.kind = Objects.requireNonNull(kind);
+			this.pattern = Objects.requireNonNull(pattern);
+			this.subscriber = (VariableListener<Object>) Objects.requireNonNull(subscriber);
+			if(kind == Kind.GLOB){
+				int wildcard = 0;
+				while(wildcard < pattern.length() && pattern.charAt(wildcard) != '*' &&
+						pattern.charAt(wildcard) != '?'){
+					wildcard++;
+				}
+				literal = pattern.substring(0, wildcard);
+				regex = compileGlob(pattern);
+			}
+			else{
+				literal = pattern;
+			}
+		}
+
+		protected void deliver(VariableChangeEvent<?> e){
+			@SuppressWarnings("unchecked")
+			VariableChangeEvent<Object> event = (VariableChangeEvent<Object>) e;
+			subscriber.changeOccured(event);
+		}
+
+		protected void failed(RuntimeException e){
+			failures.increment();
+			lastFailure = e;
+		}
+
+		//The number of changes the subscriber threw on
+		public long getFailureCount(){
+			return failures.sum();
+		}
+
+		//What the subscriber last threw, or null if it never did
+		public RuntimeException getLastFailure(){
+			return lastFailure;
+		}
+
+		public Kind getKind(){
+			return kind;
+		}
+
+		public String getPattern(){
+			return pattern;
+		}
+
+		public boolean cancel(){
+			return unsubscribe(this);
+		}
+
+	}
+
+	//Told about the variables published under matching names (see watch)
+	public interface PublicationListener{
+
+		public void published(DynamicVariable<?> variable);
+
+		public void unpublished(DynamicVariable<?> variable);
+
+	}
+
+	public class Watch{
+
+		protected Kind kind;
+		protected String pattern;
+		protected Pattern regex;
+		protected PublicationListener watcher;
+
+		protected Watch(Kind kind, String pattern, PublicationListener watcher){
+			this.kind = Objects.requireNonNull(kind);
+			this.pattern = Objects.requireNonNull(pattern);
+			this.watcher = Objects.requireNonNull(watcher);
+			if(kind == Kind.GLOB){
+				regex = compileGlob(pattern);
+			}
+		}
+
+		public boolean matches(String name){
+			if(name == null){
+				return false;
+			}
+			switch(kind){
+				case EXACT:
+					return name.equals(pattern);
+				case PREFIX:
+					return name.startsWith(pattern);
+				case GLOB:
+				default:
+					return regex.matcher(name).matches();
+			}
+		}
+
+		protected void published(DynamicVariable<?> variable){
+			if(matches(variable.getName())){
+				watcher.published(variable);
+			}
+		}
+
+		protected void unpublished(DynamicVariable<?> variable){
+			if(matches(variable.getName())){
+				watcher.unpublished(variable);
+			}
+		}
+
+		public Kind getKind(){
+			return kind;
+		}
+
+		public String getPattern(){
+			return pattern;
+		}
+
+		public boolean cancel(){
+			return unwatch(this);
+		}
+
+	}
+
+	protected static Pattern compileGlob(String glob){
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for(int i = 0; i < glob.length(); i++){
+			char c = glob.charAt(i);
+			if(c == '*' || c == '?'){
+				if(i > start){
+					regex.append(Pattern.quote(glob.substring(start, i)));
+				}
+				regex.append(c == '*' ? ".*" : ".");
+				start = i + 1;
+			}
+		}
+		if(start < glob.length()){
+			regex.append(Pattern.quote(glob.substring(start)));
+		}
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+
+	protected static class Node{
+
+		protected Map<Character, Node> children;
+		protected List<Subscription> exact = new ArrayList<Subscription>(0);
+		protected List<Subscription> prefix = new ArrayList<Subscription>(0);
+		protected List<Subscription> glob = new ArrayList<Subscription>(0);
+
+		public Node child(char c, boolean create){
+			if(children == null){
+				if(!create){
+					return null;
+				}
+				children = new HashMap<Character, Node>(4);
+			}
+			Node child = children.get(c);
+			if(child == null && create){
+				child = new Node();
+				children.put(c, child);
+			}
+			return child;
+		}
+
+		public List<Subscription> subscriptions(Kind kind){
+			switch(kind){
+				case EXACT:
+					return exact;
+				case PREFIX:
+					return prefix;
+				case GLOB:
+				default:
+					return glob;
+			}
+		}
+
+	}
+}
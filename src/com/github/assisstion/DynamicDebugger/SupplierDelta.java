@@ -0,0 +1,68 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+//The changes to the supplier values between two versions
+//A full delta (isFull) replaces everything the sink knows about suppliers:
+//its added map holds every current value and nothing is removed
+//Otherwise the three parts never share a key
+public class SupplierDelta{
+
+	protected long baseVersion;
+	protected long version;
+	protected long timeStamp;
+	protected boolean full;
+	protected Map<String, String> added;
+	protected Map<String, String> changed;
+	protected Set<String> removed;
+
+	public SupplierDelta(long baseVersion, long version, long timeStamp, boolean full,
+			Map<String, String> added, Map<String, String> changed, Set<String> removed){
+		this.baseVersion = baseVersion;
+		this.version = version;
+		this.timeStamp = timeStamp;
+		this.full = full;
+		this.added = Collections.unmodifiableMap(added);
+		this.changed = Collections.unmodifiableMap(changed);
+		this.removed = Collections.unmodifiableSet(removed);
+	}
+
+	//The version the delta applies to, i.e. the version of the previous delta
+	//given to the same sink; 0 for the first one
+	public long getBaseVersion(){
+		return baseVersion;
+	}
+
+	//The SupplierSnapshot version the sink is at after applying the delta
+	public long getVersion(){
+		return version;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public boolean isFull(){
+		return full;
+	}
+
+	//Keys that were not there in the base version
+	public Map<String, String> getAdded(){
+		return added;
+	}
+
+	//Keys whose value differs from the base version
+	public Map<String, String> getChanged(){
+		return changed;
+	}
+
+	public Set<String> getRemoved(){
+		return removed;
+	}
+
+	public boolean isEmpty(){
+		return !full && added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+	}
+}
@@ -0,0 +1,122 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+//Accumulates supplier changes until they are taken as one SupplierDelta
+//The sampler uses one per tick; the Debugger keeps one per sink, so a sink
+//that falls behind (or whose dispatch was dropped) receives the merged
+//changes next time instead of missing some
+//Thread safe
+class SupplierDeltaBuilder{
+
+	protected Map<String, String> added = new HashMap<String, String>();
+	protected Map<String, String> changed = new HashMap<String, String>();
+	protected Set<String> removed = new HashSet<String>();
+	protected boolean full;
+	protected boolean needsFull;
+	protected long baseVersion = 0;
+	protected long version = 0;
+	protected long timeStamp;
+	//Held while a taken delta is being applied, so that deltas reach the
+	//sink one at a time and in order
+	protected final Object deliveryLock = new Object();
+
+	//needsFull: the first delta taken must be a full one (see reset)
+	public SupplierDeltaBuilder(boolean needsFull){
+		this.needsFull = needsFull;
+	}
+
+	public synchronized void add(String key, String value){
+		if(!full && removed.remove(key)){
+			changed.put(key, value);
+		}
+		else if(!full && changed.containsKey(key)){
+			changed.put(key, value);
+		}
+		else{
+			added.put(key, value);
+		}
+	}
+
+	public synchronized void change(String key, String value){
+		if(full || added.containsKey(key)){
+			added.put(key, value);
+		}
+		else{
+			changed.put(key, value);
+		}
+	}
+
+	public synchronized void remove(String key){
+		if(added.remove(key) != null || full){
+			//The sink never saw it
+			return;
+		}
+		changed.remove(key);
+		removed.add(key);
+	}
+
+	public synchronized void merge(SupplierDelta delta){
+		if(delta.isFull()){
+			reset(delta.getAdded(), delta.getVersion(), delta.getTimeStamp());
+			return;
+		}
+		for(String key : delta.getRemoved()){
+			remove(key);
+		}
+		for(Map.Entry<String, String> entry : delta.getAdded().entrySet()){
+			add(entry.getKey(), entry.getValue());
+		}
+		for(Map.Entry<String, String> entry : delta.getChanged().entrySet()){
+			change(entry.getKey(), entry.getValue());
+		}
+		setVersion(delta.getVersion(), delta.getTimeStamp());
+	}
+
+	//Replaces everything with the full set of values
+	public synchronized void reset(Map<String, String> values, long version, long timeStamp){
+		added.clear();
+		changed.clear();
+		removed.clear();
+		added.putAll(values);
+		full = true;
+		needsFull = false;
+		setVersion(version, timeStamp);
+	}
+
+	public synchronized void setVersion(long version, long timeStamp){
+		this.version = version;
+		this.timeStamp = timeStamp;
+	}
+
+	//The next delta taken is a full one, once reset has been called
+	public synchronized void requestFull(){
+		needsFull = true;
+	}
+
+	public synchronized boolean needsFull(){
+		return needsFull;
+	}
+
+	public synchronized boolean isEmpty(){
+		return !full && added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+	}
+
+	//Null if there is nothing to take, or if a full delta is still needed
+	public synchronized SupplierDelta take(){
+		if(needsFull || isEmpty()){
+			return null;
+		}
+		SupplierDelta delta = new SupplierDelta(baseVersion, version, timeStamp, full,
+				added, changed, removed);
+		added = new HashMap<String, String>();
+		changed = new HashMap<String, String>();
+		removed = new HashSet<String>();
+		full = false;
+		baseVersion = version;
+		return delta;
+	}
+}
@@ -0,0 +1,34 @@
+package com.github.assisstion.DynamicDebugger;
+
+//Compatibility support for the "%$key=value" supplier pattern syntax
+//(see Debugger); KeyedSupplier should be preferred for new code
+final class SupplierPattern{
+
+	public static final String PREFIX = "%$";
+
+	private SupplierPattern(){
+		//Not instantiable
+	}
+
+	public static boolean matches(String text){
+		return text.startsWith(PREFIX) && text.indexOf('=', PREFIX.length()) != -1;
+	}
+
+	//Returns defaultKey if the text does not match the pattern
+	public static String key(String text, String defaultKey){
+		if(!text.startsWith(PREFIX)){
+			return defaultKey;
+		}
+		int i = text.indexOf('=', PREFIX.length());
+		return i == -1 ? defaultKey : text.substring(PREFIX.length(), i);
+	}
+
+	//Returns the text itself if it does not match the pattern
+	public static String value(String text){
+		if(!text.startsWith(PREFIX)){
+			return text;
+		}
+		int i = text.indexOf('=', PREFIX.length());
+		return i == -1 ? text : text.substring(i + 1);
+	}
+}
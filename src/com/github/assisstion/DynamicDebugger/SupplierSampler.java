@@ -0,0 +1,314 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+//Reads every supplier exactly once per tick and detects changes per supplier
+//A supplier has changed if its value is not equal to the last one, or if it
+//returned the same object with a different hash code (i.e. it was mutated)
+//Values are only turned into Strings when they change, and the keys of
+//KeyedSuppliers are read once when they are attached
+//Each supplier has an interval in ticks, and only suppliers that are due
+//are read in a tick; they are kept in a heap ordered by due tick
+//With adaptive sampling, the interval of a supplier that has not changed
+//for ADAPTIVE_THRESHOLD samples is doubled (up to MAX_BACKOFF times its
+//base interval), and it returns to its base interval as soon as it changes;
+//the interval of a supplier that has changed on ADAPTIVE_THRESHOLD samples
+//in a row is halved (down to one tick)
+//Each tick that changes something also produces a SupplierDelta of the keys
+//added, changed and removed; the full SupplierSnapshot is only built when
+//asked for
+//If timing, the time spent in each supplier's get() is measured
+//Not thread safe; the Debugger samples from its timer thread only
+class SupplierSampler{
+
+	public static final int ADAPTIVE_THRESHOLD = 8;
+	public static final int MAX_BACKOFF = 64;
+
+	protected Supplier<?>[] suppliers = new Supplier<?>[0];
+	protected Object[] values = new Object[0];
+	protected int[] hashes = new int[0];
+	protected String[] keys = new String[0];
+	protected String[] texts = new String[0];
+	protected int[] baseIntervals = new int[0];
+	protected int[] intervals = new int[0];
+	//Samples in a row without a change, or minus the samples in a row with one
+	protected int[] streaks = new int[0];
+	protected long[] dueTicks = new long[0];
+	protected int[] heap = new int[0];
+	protected int heapSize = 0;
+	protected int[] due = new int[0];
+	protected long tick = 0;
+	protected boolean adaptive = false;
+	protected int modCount = -1;
+	protected long version = 0;
+	protected long timeStamp = 0;
+	protected SupplierSnapshot snapshot;
+	protected SupplierDeltaBuilder tickDelta = new SupplierDeltaBuilder(false);
+	protected SupplierDelta delta;
+	protected boolean timing = false;
+	protected long[] getNanos = new long[0];
+	protected int[] getCounts = new int[0];
+
+	//modCount must change whenever the supplier collection or intervals change
+	//Suppliers missing from intervals are sampled every tick
+	//Returns true if something changed, i.e. there is a new version
+	public boolean sample(Collection<? extends Supplier<?>> current,
+			Map<? extends Supplier<?>, Integer> intervals, int modCount){
+		tick++;
+		boolean changed = false;
+		if(modCount != this.modCount){
+			resize(current, intervals);
+			this.modCount = modCount;
+			changed = true;
+		}
+		int dueCount = 0;
+		while(heapSize > 0 && dueTicks[heap[0]] <= tick){
+			due[dueCount++] = poll();
+		}
+		for(int d = 0; d < dueCount; d++){
+			int i = due[d];
+			if(sample(i)){
+				changed = true;
+				if(!adaptive || this.intervals[i] > baseIntervals[i]){
+					streaks[i] = 0;
+					this.intervals[i] = baseIntervals[i];
+				}
+				else{
+					streaks[i] = Math.min(streaks[i], 0) - 1;
+					if(streaks[i] <= -ADAPTIVE_THRESHOLD){
+						streaks[i] = 0;
+						this.intervals[i] = Math.max(1, this.intervals[i] / 2);
+					}
+				}
+			}
+			else if(adaptive){
+				streaks[i] = Math.max(streaks[i], 0) + 1;
+				if(streaks[i] >= ADAPTIVE_THRESHOLD){
+					streaks[i] = 0;
+					this.intervals[i] = (int) Math.min((long) this.intervals[i] * 2,
+							(long) baseIntervals[i] * MAX_BACKOFF);
+				}
+			}
+			dueTicks[i] = tick + this.intervals[i];
+			offer(i);
+		}
+		if(changed){
+			timeStamp = System.currentTimeMillis();
+			tickDelta.setVersion(++version, timeStamp);
+			delta = tickDelta.take();
+		}
+		return changed;
+	}
+
+	protected boolean sample(int i){
+		Object value;
+		if(timing){
+			long start = System.nanoTime();
+			value = suppliers[i].get();
+			getNanos[i] += System.nanoTime() - start;
+			getCounts[i]++;
+		}
+		else{
+			value = suppliers[i].get();
+		}
+		int hash = Objects.hashCode(value);
+		if(texts[i] == null || hash != hashes[i] || !Objects.equals(value, values[i])){
+			String oldKey = texts[i] == null ? null : keys[i];
+			values[i] = value;
+			hashes[i] = hash;
+			format(i, value);
+			if(oldKey == null){
+				tickDelta.add(keys[i], texts[i]);
+			}
+			else if(oldKey.equals(keys[i])){
+				tickDelta.change(keys[i], texts[i]);
+			}
+			else{
+				//The supplier pattern gave a different key
+				tickDelta.remove(oldKey);
+				tickDelta.add(keys[i], texts[i]);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	public void setAdaptive(boolean adaptive){
+		this.adaptive = adaptive;
+		if(!adaptive){
+			System.arraycopy(baseIntervals, 0, intervals, 0, intervals.length);
+			Arrays.fill(streaks, 0);
+		}
+	}
+
+	public boolean isAdaptive(){
+		return adaptive;
+	}
+
+	public void setTiming(boolean timing){
+		this.timing = timing;
+	}
+
+	public boolean isTiming(){
+		return timing;
+	}
+
+	//The mean time in nanoseconds of each supplier's get() since the last
+	//call, by key (or by name, for suppliers never sampled), and resets
+	//the times; only suppliers sampled since then are included
+	public Map<String, Long> takeSupplierTimes(){
+		Map<String, Long> map = new HashMap<String, Long>();
+		for(int i = 0; i < suppliers.length; i++){
+			if(getCounts[i] > 0){
+				map.put(keys[i] == null ? suppliers[i].toString() : keys[i],
+						getNanos[i] / getCounts[i]);
+				getNanos[i] = 0;
+				getCounts[i] = 0;
+			}
+		}
+		return map;
+	}
+
+	//Every current value, as of the last tick that changed something
+	public SupplierSnapshot getSnapshot(){
+		if(snapshot == null || snapshot.getVersion() != version){
+			Map<String, String> map = new HashMap<String, String>(
+					suppliers.length * 4 / 3 + 1);
+			for(int i = 0; i < suppliers.length; i++){
+				if(texts[i] != null){
+					map.put(keys[i], texts[i]);
+				}
+			}
+			snapshot = new SupplierSnapshot(version, timeStamp, map);
+		}
+		return snapshot;
+	}
+
+	//The changes made by the last tick that changed something, or null if it
+	//only changed which suppliers are attached without changing any value
+	public SupplierDelta getDelta(){
+		return delta;
+	}
+
+	//Keeps the last values of suppliers that are still attached
+	//New suppliers are due immediately
+	protected void resize(Collection<? extends Supplier<?>> current,
+			Map<? extends Supplier<?>, Integer> intervalMap){
+		Map<Supplier<?>, Integer> old = new HashMap<Supplier<?>, Integer>();
+		for(int i = 0; i < suppliers.length; i++){
+			old.put(suppliers[i], i);
+		}
+		int n = current.size();
+		Supplier<?>[] newSuppliers = new Supplier<?>[n];
+		Object[] newValues = new Object[n];
+		int[] newHashes = new int[n];
+		String[] newKeys = new String[n];
+		String[] newTexts = new String[n];
+		int[] newBaseIntervals = new int[n];
+		int[] newIntervals = new int[n];
+		int[] newStreaks = new int[n];
+		long[] newDueTicks = new long[n];
+		long[] newGetNanos = new long[n];
+		int[] newGetCounts = new int[n];
+		int i = 0;
+		for(Supplier<?> supplier : current){
+			newSuppliers[i] = supplier;
+			if(supplier instanceof KeyedSupplier){
+				newKeys[i] = ((KeyedSupplier<?>) supplier).getKey();
+			}
+			Integer interval = intervalMap.get(supplier);
+			newBaseIntervals[i] = interval == null ? 1 : Math.max(1, interval);
+			newIntervals[i] = newBaseIntervals[i];
+			newDueTicks[i] = tick;
+			Integer j = old.remove(supplier);
+			if(j != null){
+				newValues[i] = values[j];
+				newHashes[i] = hashes[j];
+				newKeys[i] = keys[j];
+				newTexts[i] = texts[j];
+				newGetNanos[i] = getNanos[j];
+				newGetCounts[i] = getCounts[j];
+				if(baseIntervals[j] == newBaseIntervals[i]){
+					newIntervals[i] = intervals[j];
+					newStreaks[i] = streaks[j];
+					newDueTicks[i] = dueTicks[j];
+				}
+			}
+			i++;
+		}
+		//Whatever is left in old has been unattached
+		for(int j : old.values()){
+			if(texts[j] != null){
+				tickDelta.remove(keys[j]);
+			}
+		}
+		suppliers = newSuppliers;
+		values = newValues;
+		hashes = newHashes;
+		keys = newKeys;
+		texts = newTexts;
+		baseIntervals = newBaseIntervals;
+		intervals = newIntervals;
+		streaks = newStreaks;
+		dueTicks = newDueTicks;
+		getNanos = newGetNanos;
+		getCounts = newGetCounts;
+		heap = new int[n];
+		due = new int[n];
+		heapSize = 0;
+		for(i = 0; i < n; i++){
+			offer(i);
+		}
+	}
+
+	protected void offer(int i){
+		int k = heapSize++;
+		while(k > 0){
+			int parent = (k - 1) >>> 1;
+			if(dueTicks[heap[parent]] <= dueTicks[i]){
+				break;
+			}
+			heap[k] = heap[parent];
+			k = parent;
+		}
+		heap[k] = i;
+	}
+
+	protected int poll(){
+		int result = heap[0];
+		int last = heap[--heapSize];
+		int k = 0;
+		int half = heapSize >>> 1;
+		while(k < half){
+			int child = 2 * k + 1;
+			int right = child + 1;
+			if(right < heapSize && dueTicks[heap[right]] < dueTicks[heap[child]]){
+				child = right;
+			}
+			if(dueTicks[last] <= dueTicks[heap[child]]){
+				break;
+			}
+			heap[k] = heap[child];
+			k = child;
+		}
+		heap[k] = last;
+		return result;
+	}
+
+	//Keyed suppliers are never parsed; see the supplier pattern syntax in
+	//Debugger for the others
+	protected void format(int i, Object value){
+		String text = String.valueOf(value);
+		if(suppliers[i] instanceof KeyedSupplier){
+			texts[i] = text;
+			return;
+		}
+		keys[i] = SupplierPattern.key(text, suppliers[i].toString());
+		texts[i] = SupplierPattern.value(text);
+	}
+}
@@ -0,0 +1,32 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.Collections;
+import java.util.Map;
+
+//The values of every attached supplier at one sampling tick
+//Shared by all DebuggerUpdatables, so it cannot be modified
+public class SupplierSnapshot{
+
+	protected long version;
+	protected long timeStamp;
+	protected Map<String, String> values;
+
+	public SupplierSnapshot(long version, long timeStamp, Map<String, String> values){
+		this.version = version;
+		this.timeStamp = timeStamp;
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	//Increases by one for every tick in which a supplier changed
+	public long getVersion(){
+		return version;
+	}
+
+	public long getTimeStamp(){
+		return timeStamp;
+	}
+
+	public Map<String, String> getValues(){
+		return values;
+	}
+}
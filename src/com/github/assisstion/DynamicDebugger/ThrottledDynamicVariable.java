@@ -0,0 +1,82 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.TimeUnit;
+
+//Passes on at most maxPerSecond changes of its source per second
+//A change that comes too soon is held back; once changes are allowed again,
+//a single change to the current value of the source is passed on, so the
+//last value is never lost
+//get returns the current value of the source
+public class ThrottledDynamicVariable<T> extends DynamicVariableWrapper<T, T>{
+
+	protected long periodNanos;
+	//Guarded by this
+	protected long nextAllowed;
+	protected boolean trailingScheduled = false;
+	protected boolean held = false;
+	protected long heldTimeStamp;
+	protected T emitted;
+
+	public ThrottledDynamicVariable(DynamicVariable<? extends T> source, double maxPerSecond){
+		this(null, source, maxPerSecond);
+	}
+
+	public ThrottledDynamicVariable(String name, DynamicVariable<? extends T> source,
+			double maxPerSecond){
+		super(name, source);
+		if(!(maxPerSecond > 0)){
+			throw new IllegalArgumentException("maxPerSecond must be positive");
+		}
+		periodNanos = (long) (1000000000 / maxPerSecond);
+		nextAllowed = System.nanoTime();
+		emitted = source.get();
+		start();
+	}
+
+	@Override
+	public T get(){
+		return source.get();
+	}
+
+	@Override
+	protected void sourceChanged(VariableChangeEvent<? extends T> e){
+		T oldValue;
+		synchronized(this){
+			long now = System.nanoTime();
+			if(trailingScheduled || now - nextAllowed < 0){
+				held = true;
+				heldTimeStamp = e.getTimeStamp();
+				if(!trailingScheduled){
+					trailingScheduled = true;
+					scheduler.schedule(this::trailing, nextAllowed - now,
+							TimeUnit.NANOSECONDS);
+				}
+				return;
+			}
+			nextAllowed = now + periodNanos;
+			oldValue = emitted;
+			emitted = e.getNewValue();
+		}
+		fireChangeListeners(oldValue, e.getNewValue(), e.getTimeStamp());
+	}
+
+	protected void trailing(){
+		T oldValue;
+		T newValue;
+		long timeStamp;
+		synchronized(this){
+			trailingScheduled = false;
+			if(!held){
+				return;
+			}
+			held = false;
+			nextAllowed = System.nanoTime() + periodNanos;
+			oldValue = emitted;
+			//Events may be delivered out of order, the source may not
+			newValue = source.get();
+			timeStamp = heldTimeStamp;
+			emitted = newValue;
+		}
+		fireChangeListeners(oldValue, newValue, timeStamp);
+	}
+}
@@ -0,0 +1,109 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//A fixed-capacity ring buffer of (timestamp, value) samples; once it is full,
+//the oldest sample is overwritten
+//Indices go from 0 (the oldest sample kept) to size() - 1 (the newest)
+//Samples are kept in the order of their timestamps: the dispatch threads
+//may deliver changes out of order, so a sample older than the newest ones
+//is moved back to its place when it is recorded
+public abstract class VariableHistory<T>{
+
+	protected int capacity;
+	//Total number of samples ever recorded; guarded by this
+	protected long count = 0;
+
+	public VariableHistory(int capacity){
+		if(capacity < 1){
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+	}
+
+	public int capacity(){
+		return capacity;
+	}
+
+	public synchronized int size(){
+		return (int) Math.min(count, capacity);
+	}
+
+	public synchronized long getTotalCount(){
+		return count;
+	}
+
+	public synchronized void clear(){
+		count = 0;
+	}
+
+	public synchronized long getTimeStamp(int index){
+		return timeStampAt(slot(index));
+	}
+
+	public synchronized T get(int index){
+		return valueAt(slot(index));
+	}
+
+	//The newest n samples (or fewer if fewer were kept), oldest first
+	public synchronized List<HistoryEntry<T>> last(int n){
+		int size = size();
+		n = Math.max(0, Math.min(n, size));
+		List<HistoryEntry<T>> list = new ArrayList<HistoryEntry<T>>(n);
+		for(int i = size - n; i < size; i++){
+			int slot = slot(i);
+			list.add(new HistoryEntry<T>(timeStampAt(slot), valueAt(slot)));
+		}
+		return list;
+	}
+
+	//The samples with from <= timestamp < to, oldest first
+	public synchronized List<HistoryEntry<T>> range(long from, long to){
+		List<HistoryEntry<T>> list = new ArrayList<HistoryEntry<T>>();
+		int size = size();
+		for(int i = 0; i < size; i++){
+			int slot = slot(i);
+			long timeStamp = timeStampAt(slot);
+			if(timeStamp >= from && timeStamp < to){
+				list.add(new HistoryEntry<T>(timeStamp, valueAt(slot)));
+			}
+		}
+		return list;
+	}
+
+	//Must be called while holding the lock on this
+	protected int slot(int index){
+		int size = size();
+		if(index < 0 || index >= size){
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return (int) ((count - size + index) % capacity);
+	}
+
+	//Claims the slot of the next sample; must be called while holding the lock
+	protected int nextSlot(){
+		return (int) (count++ % capacity);
+	}
+
+	//Moves the newest sample back past the samples with later timestamps;
+	//must be called while holding the lock
+	//Changes are rarely delivered far out of order, so this rarely moves
+	//the sample more than a few places
+	protected void sortNewest(){
+		for(int i = size() - 1; i > 0; i--){
+			int slot = slot(i);
+			int previous = slot(i - 1);
+			if(timeStampAt(previous) <= timeStampAt(slot)){
+				return;
+			}
+			swap(previous, slot);
+		}
+	}
+
+	protected abstract void swap(int slot, int other);
+
+	protected abstract long timeStampAt(int slot);
+
+	protected abstract T valueAt(int slot);
+}
@@ -0,0 +1,237 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+//Runs every delivery on a virtual thread, so listeners and updatables that
+//block do not tie up OS threads
+//Tasks for the same source and target still run one at a time and in order
+//On JVMs without virtual threads (before Java 21), platform threads are
+//created on demand instead
+public class VirtualThreadDispatchExecutor extends DispatchExecutor{
+
+	public static final int DEFAULT_CAPACITY_PER_TARGET = 1024;
+
+	protected ExecutorService threads;
+	protected boolean virtual;
+	protected int capacity;
+	protected ConcurrentMap<DispatchKey, SerialQueue> queues =
+			new ConcurrentHashMap<DispatchKey, SerialQueue>();
+
+	public VirtualThreadDispatchExecutor(){
+		this(DEFAULT_CAPACITY_PER_TARGET, OverflowPolicy.BLOCK);
+	}
+
+	//The capacity and policy apply to each source and target separately
+	public VirtualThreadDispatchExecutor(int capacityPerTarget, OverflowPolicy policy){
+		super(policy);
+		if(capacityPerTarget < 1){
+			throw new IllegalArgumentException("capacityPerTarget must be positive");
+		}
+		capacity = capacityPerTarget;
+		threads = newVirtualThreadExecutor();
+		virtual = threads != null;
+		if(!virtual){
+			threads = Executors.newCachedThreadPool(
+					new DispatchThreadFactory("DynamicDebugger-dispatch"));
+		}
+	}
+
+	//Looked up reflectively so that the sources still compile for Java 8
+	protected static ExecutorService newVirtualThreadExecutor(){
+		try{
+			return (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException | RuntimeException e){
+			return null;
+		}
+	}
+
+	//False if running on platform threads because virtual threads are unavailable
+	public boolean isVirtual(){
+		return virtual;
+	}
+
+	@Override
+	public void execute(Runnable task){
+		threads.execute(task);
+	}
+
+	@Override
+	public void dispatch(Object source, Object target, Runnable task){
+		task = instrument(task);
+		DispatchKey key = new DispatchKey(source, target);
+		while(true){
+			SerialQueue queue = queues.get(key);
+			if(queue == null){
+				SerialQueue created = this.new SerialQueue(key);
+				queue = queues.putIfAbsent(key, created);
+				if(queue == null){
+					queue = created;
+				}
+			}
+			if(queue.enqueue(task)){
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int getQueueSize(){
+		int size = 0;
+		for(SerialQueue queue : queues.values()){
+			size += queue.size();
+		}
+		return size;
+	}
+
+	@Override
+	public int getMaximumThreads(){
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public ExecutorService getExecutorService(){
+		return threads;
+	}
+
+	@Override
+	public void shutdown(){
+		threads.shutdown();
+	}
+
+	//Holds the pending tasks of one source and target; it is drained by at
+	//most one thread at a time and removed from the map once empty
+	protected class SerialQueue implements Runnable{
+
+		protected DispatchKey key;
+		protected Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+		protected boolean running = false;
+		protected boolean retired = false;
+
+		public SerialQueue(DispatchKey key){
+			this.key = key;
+		}
+
+		//False if the queue has been retired and a new one must be used
+		public boolean enqueue(Runnable task){
+			boolean start;
+			synchronized(this){
+				if(retired){
+					return false;
+				}
+				if(policy == OverflowPolicy.COALESCE){
+					Runnable replaced;
+					while((replaced = tasks.poll()) != null){
+						drop(replaced);
+					}
+				}
+				while(tasks.size() >= capacity){
+					if(policy == OverflowPolicy.DROP_NEWEST){
+						drop(task);
+						return true;
+					}
+					if(policy == OverflowPolicy.BLOCK){
+						if(isDispatchThread()){
+							//Exceeding the capacity is better than a deadlock
+							break;
+						}
+						try{
+							wait();
+						}
+						catch(InterruptedException e){
+							Thread.currentThread().interrupt();
+							drop(task);
+							return true;
+						}
+						//Drained and retired while waiting; later tasks would
+						//go to a new queue and could overtake this one
+						if(retired){
+							return false;
+						}
+					}
+					else{
+						drop(tasks.poll());
+					}
+				}
+				tasks.add(task);
+				start = !running;
+				running = true;
+			}
+			if(start){
+				threads.execute(this);
+			}
+			return true;
+		}
+
+		public synchronized int size(){
+			return tasks.size();
+		}
+
+		@Override
+		public void run(){
+			dispatching.set(Boolean.TRUE);
+			try{
+				drain();
+			}
+			finally{
+				dispatching.remove();
+			}
+		}
+
+		//If a task throws, the exception goes to the thread's handler, as on
+		//a DispatchExecutor, and the rest of the tasks run on a new thread
+		protected void drain(){
+			boolean finished = false;
+			try{
+				while(true){
+					Runnable task;
+					synchronized(this){
+						task = tasks.poll();
+						if(task == null){
+							running = false;
+							retired = true;
+							queues.remove(key, this);
+							finished = true;
+							return;
+						}
+						notifyAll();
+					}
+					task.run();
+					runRetries();
+				}
+			}
+			finally{
+				if(!finished){
+					restart();
+				}
+			}
+		}
+
+		protected void restart(){
+			try{
+				threads.execute(this);
+			}
+			catch(RejectedExecutionException e){
+				//Shut down; the tasks left are dropped
+				synchronized(this){
+					running = false;
+					retired = true;
+					queues.remove(key, this);
+					Runnable task;
+					while((task = tasks.poll()) != null){
+						drop(task);
+					}
+					notifyAll();
+				}
+			}
+		}
+
+	}
+}
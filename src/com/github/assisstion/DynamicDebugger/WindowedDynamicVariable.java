@@ -0,0 +1,128 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+//Aggregates the changes of a numeric source over windows of a fixed length
+//and passes on one change per window with the count, minimum, maximum and
+//average of the values the source changed to; windows in which the source
+//did not change are skipped
+//get returns the statistics of the last window, or null before the first
+public class WindowedDynamicVariable extends
+DynamicVariableWrapper<Number, WindowedDynamicVariable.WindowStats>{
+
+	protected long windowMillis;
+	protected ScheduledFuture<?> future;
+	//Guarded by this
+	protected long count = 0;
+	protected double min;
+	protected double max;
+	protected double sum;
+	protected volatile WindowStats last;
+
+	public WindowedDynamicVariable(DynamicVariable<? extends Number> source,
+			long windowMillis){
+		this(null, source, windowMillis);
+	}
+
+	public WindowedDynamicVariable(String name, DynamicVariable<? extends Number> source,
+			long windowMillis){
+		super(name, source);
+		if(windowMillis < 1){
+			throw new IllegalArgumentException("windowMillis must be positive");
+		}
+		this.windowMillis = windowMillis;
+		start();
+		future = scheduler.scheduleAtFixedRate(this::closeWindow, windowMillis,
+				windowMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public WindowStats get(){
+		return last;
+	}
+
+	@Override
+	protected void sourceChanged(VariableChangeEvent<? extends Number> e){
+		Number value = e.getNewValue();
+		if(value == null){
+			return;
+		}
+		double d = value.doubleValue();
+		synchronized(this){
+			if(count == 0){
+				min = d;
+				max = d;
+			}
+			else{
+				min = Math.min(min, d);
+				max = Math.max(max, d);
+			}
+			sum += d;
+			count++;
+		}
+	}
+
+	protected void closeWindow(){
+		WindowStats stats;
+		synchronized(this){
+			if(count == 0){
+				return;
+			}
+			stats = new WindowStats(count, min, max, sum / count);
+			count = 0;
+			sum = 0;
+		}
+		WindowStats old = last;
+		last = stats;
+		fireChangeListeners(old, stats, System.currentTimeMillis());
+	}
+
+	public long getWindowMillis(){
+		return windowMillis;
+	}
+
+	@Override
+	public void dispose(){
+		super.dispose();
+		future.cancel(false);
+	}
+
+	//The values of one window
+	public static class WindowStats{
+
+		protected long count;
+		protected double min;
+		protected double max;
+		protected double average;
+
+		public WindowStats(long count, double min, double max, double average){
+			this.count = count;
+			this.min = min;
+			this.max = max;
+			this.average = average;
+		}
+
+		public long getCount(){
+			return count;
+		}
+
+		public double getMin(){
+			return min;
+		}
+
+		public double getMax(){
+			return max;
+		}
+
+		public double getAverage(){
+			return average;
+		}
+
+		@Override
+		public String toString(){
+			return "n=" + count + " min=" + min + " max=" + max + " avg=" + average;
+		}
+
+	}
+}
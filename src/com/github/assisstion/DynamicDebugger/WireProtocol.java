@@ -0,0 +1,182 @@
+package com.github.assisstion.DynamicDebugger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//Protocol spoken between RemoteSink and RemoteDebuggerClient
+//Both directions are a series of frames: an int length followed by that many
+//bytes of messages; each message is a type byte and its fields
+//Integers are varints (7 bits per byte, least significant first), signed
+//ones zigzag encoded; strings are a varint length and that many UTF-8 bytes
+//Server to client:
+//  DEFINE id name: from now on, id stands for the key name
+//  VALUE id value: the key has the value
+//  DELTA id delta: the key has its previous value plus delta; only sent when
+//      both values are the decimal Strings of longs
+//  REMOVE id: the key has been removed
+//  TABLE_BEGIN, TABLE_END: the VALUE and DELTA messages in between are one
+//      supplier table (see DebuggerUpdatable.update)
+//  STATE state skips: the execution state and the skip count of the Debugger
+//Client to server:
+//  RESUME count: calls resumeExecution(count)
+final class WireProtocol{
+
+	public static final int MAGIC = 0x44445250;
+	public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+	public static final byte DEFINE = 1;
+	public static final byte VALUE = 2;
+	public static final byte DELTA = 3;
+	public static final byte REMOVE = 4;
+	public static final byte TABLE_BEGIN = 5;
+	public static final byte TABLE_END = 6;
+	public static final byte STATE = 7;
+
+	public static final byte RESUME = 16;
+
+	private WireProtocol(){
+		//Not instantiable
+	}
+
+	//The value of the String if it is the canonical decimal form of a long,
+	//so that the long turns back into the same String; null otherwise
+	public static Long parseLong(String s){
+		if(s == null){
+			return null;
+		}
+		int length = s.length();
+		if(length == 0 || length > 20){
+			return null;
+		}
+		int start = s.charAt(0) == '-' ? 1 : 0;
+		if(start == length || s.charAt(start) == '0' && length > start + 1){
+			return null;
+		}
+		for(int i = start; i < length; i++){
+			char c = s.charAt(i);
+			if(c < '0' || c > '9'){
+				return null;
+			}
+		}
+		if(s.equals("-0")){
+			return null;
+		}
+		try{
+			return Long.parseLong(s);
+		}
+		catch(NumberFormatException e){
+			return null;
+		}
+	}
+
+	public static int readVarInt(ByteBuffer in){
+		return (int) readVarLong(in);
+	}
+
+	public static long readVarLong(ByteBuffer in){
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7){
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if(b >= 0){
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	public static long readSignedVarLong(ByteBuffer in){
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public static String readString(ByteBuffer in){
+		int length = readVarInt(in);
+		if(length < 0 || length > in.remaining()){
+			throw new IllegalArgumentException("Malformed string");
+		}
+		String s = new String(in.array(), in.arrayOffset() + in.position(),
+				length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return s;
+	}
+
+	//Growable buffer that messages are written to; frames are started with
+	//beginFrame and completed with endFrame
+	public static class Output{
+
+		protected byte[] bytes = new byte[4096];
+		protected int size = 0;
+		protected int frameStart = -1;
+
+		public void beginFrame(){
+			frameStart = size;
+			size += 4;
+			ensureCapacity(0);
+		}
+
+		//Drops the frame if nothing was written to it
+		public void endFrame(){
+			int length = size - frameStart - 4;
+			if(length == 0){
+				size = frameStart;
+			}
+			else{
+				bytes[frameStart] = (byte) (length >>> 24);
+				bytes[frameStart + 1] = (byte) (length >>> 16);
+				bytes[frameStart + 2] = (byte) (length >>> 8);
+				bytes[frameStart + 3] = (byte) length;
+			}
+			frameStart = -1;
+		}
+
+		//Size of the frame being written, excluding its length
+		public int frameSize(){
+			return frameStart < 0 ? 0 : size - frameStart - 4;
+		}
+
+		public void writeByte(byte b){
+			ensureCapacity(1);
+			bytes[size++] = b;
+		}
+
+		public void writeVarLong(long value){
+			ensureCapacity(10);
+			while((value & ~0x7FL) != 0){
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		public void writeSignedVarLong(long value){
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		public void writeString(String s){
+			byte[] text = s.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(text.length);
+			ensureCapacity(text.length);
+			System.arraycopy(text, 0, bytes, size, text.length);
+			size += text.length;
+		}
+
+		protected void ensureCapacity(int extra){
+			if(size + extra > bytes.length){
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+			}
+		}
+
+		public boolean isEmpty(){
+			return size == 0;
+		}
+
+		//Moves everything written so far into a buffer ready to be written out
+		public ByteBuffer take(){
+			ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, size));
+			size = 0;
+			return buffer;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+//Coalesced changes and coalesced dispatches, including when the queue has
+//no room for them
+public class CoalescingTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+
+	protected DispatchExecutor executor;
+	protected CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void tearDown(){
+		release.countDown();
+		executor.shutdown();
+	}
+
+	//A burst made while the listener is busy arrives as one event with the
+	//first old value and the last new value
+	@Test
+	public void burst() throws InterruptedException{
+		executor = new DispatchExecutor(1, DispatchExecutor.DEFAULT_QUEUE_CAPACITY,
+				DispatchExecutor.OverflowPolicy.BLOCK);
+		DynamicVariableHolder<Integer> variable = new DynamicVariableHolder<Integer>("v", 0);
+		variable.setDispatcher(executor);
+		variable.setCoalescing(true);
+		Events events = new Events();
+		CountDownLatch first = new CountDownLatch(1);
+		variable.addChangeListener(e -> {
+			first.countDown();
+			await(release);
+			events.add(e.getOldValue(), e.getNewValue());
+		});
+		variable.set(1);
+		assertTrue(first.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		for(int i = 2; i <= 10; i++){
+			variable.set(i);
+		}
+		release.countDown();
+		await(() -> events.size() == 2);
+		assertEquals("0>1", events.get(0));
+		assertEquals("1>10", events.get(1));
+	}
+
+	//A drain task the queue has no room for is still run, so the last change
+	//is delivered without waiting for another one
+	@Test
+	public void droppedDrain() throws InterruptedException{
+		executor = new DispatchExecutor(1, 1, DispatchExecutor.OverflowPolicy.DROP_NEWEST);
+		fill();
+		DynamicVariableHolder<Integer> variable = new DynamicVariableHolder<Integer>("v", 0);
+		variable.setDispatcher(executor);
+		variable.setCoalescing(true);
+		Events events = new Events();
+		variable.addChangeListener(e -> events.add(e.getOldValue(), e.getNewValue()));
+		variable.set(1);
+		variable.set(2);
+		release.countDown();
+		await(() -> events.size() == 1);
+		assertEquals("0>2", events.get(0));
+		assertEquals(0, executor.getDroppedCount());
+	}
+
+	//A coalesced dispatch pushed out of the queue still runs its latest task
+	@Test
+	public void droppedCoalescedTask() throws InterruptedException{
+		executor = new DispatchExecutor(1, 1, DispatchExecutor.OverflowPolicy.COALESCE);
+		fill();
+		Object source = new Object();
+		Events events = new Events();
+		executor.dispatch(source, "a", () -> events.add(0, 1));
+		executor.dispatch(source, "a", () -> events.add(0, 2));
+		//Pushes the task for "a" out of the queue
+		executor.dispatch(source, "b", () -> events.add(0, 3));
+		release.countDown();
+		await(() -> events.size() == 2);
+		assertTrue(events.contains("0>2"));
+		assertTrue(events.contains("0>3"));
+	}
+
+	//Occupies the only dispatch thread and the only place in the queue until
+	//release is counted down
+	protected void fill() throws InterruptedException{
+		CountDownLatch started = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		executor.execute(() -> await(release));
+	}
+
+	protected static void await(CountDownLatch latch){
+		try{
+			latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	protected static class Events{
+
+		protected List<String> events = new ArrayList<String>();
+
+		public synchronized void add(Object oldValue, Object newValue){
+			events.add(oldValue + ">" + newValue);
+		}
+
+		public synchronized int size(){
+			return events.size();
+		}
+
+		public synchronized String get(int index){
+			return events.get(index);
+		}
+
+		public synchronized boolean contains(String event){
+			return events.contains(event);
+		}
+
+	}
+}
@@ -0,0 +1,113 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+//Listeners of derived variables never see a value computed from a mix of
+//old and new inputs
+public class DerivedDynamicVariableTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+
+	protected DispatchExecutor serial;
+
+	@Before
+	public void setUp(){
+		serial = new DispatchExecutor(1, DispatchExecutor.DEFAULT_QUEUE_CAPACITY,
+				DispatchExecutor.OverflowPolicy.BLOCK);
+	}
+
+	@After
+	public void tearDown(){
+		serial.shutdown();
+	}
+
+	//a feeds b and c, which meet again in d; d = 2a + (a + 1) whenever it
+	//is computed from one value of a
+	//Each change is left to propagate before the next, since a function that
+	//runs while its input changes may read it before and after the change
+	@Test
+	public void diamond() throws InterruptedException{
+		DynamicVariableHolder<Integer> a = new DynamicVariableHolder<Integer>("a", 0);
+		DerivedDynamicVariable<Integer> b = DerivedDynamicVariable.of("b", a, x -> 2 * x);
+		DerivedDynamicVariable<Integer> c = DerivedDynamicVariable.of("c", a, x -> x + 1);
+		DerivedDynamicVariable<Integer> d = DerivedDynamicVariable.of("d", b, c, Integer::sum);
+		assertTrue(d.getRank() > b.getRank() && d.getRank() > c.getRank());
+		Values values = new Values();
+		d.setDispatcher(serial);
+		d.addChangeListener(e -> values.add(e.getNewValue()));
+		for(int i = 1; i <= 50; i++){
+			a.set(i);
+			int expected = 3 * i + 1;
+			await(() -> values.last() == expected);
+		}
+		List<Integer> seen = values.get();
+		assertEquals(seen.toString(), 50, seen.size());
+		for(int i = 0; i < seen.size(); i++){
+			assertEquals(3 * (i + 1) + 1, (int) seen.get(i));
+		}
+	}
+
+	//Changes made in a batch are propagated together
+	@Test
+	public void batch() throws InterruptedException{
+		DynamicVariableHolder<Integer> x = new DynamicVariableHolder<Integer>("x", 0);
+		DynamicVariableHolder<Integer> y = new DynamicVariableHolder<Integer>("y", 0);
+		DerivedDynamicVariable<Integer> sum = DerivedDynamicVariable.of("sum", x, y, Integer::sum);
+		Values values = new Values();
+		sum.setDispatcher(serial);
+		sum.addChangeListener(e -> values.add(e.getNewValue()));
+		for(int i = 1; i <= 200; i++){
+			int value = i;
+			DerivedDynamicVariable.batch(() -> {
+				x.set(value);
+				y.set(-value);
+			});
+		}
+		DerivedDynamicVariable.batch(() -> {
+			x.set(100);
+			y.set(0);
+		});
+		await(() -> values.last() == 100);
+		List<Integer> seen = values.get();
+		for(int i = 0; i < seen.size() - 1; i++){
+			assertEquals(0, (int) seen.get(i));
+		}
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	protected static class Values{
+
+		protected List<Integer> values = new ArrayList<Integer>();
+
+		public synchronized void add(Integer value){
+			values.add(value);
+		}
+
+		public synchronized List<Integer> get(){
+			return new ArrayList<Integer>(values);
+		}
+
+		//Integer.MIN_VALUE if there is none
+		public synchronized int last(){
+			return values.isEmpty() ? Integer.MIN_VALUE : values.get(values.size() - 1);
+		}
+
+	}
+}
@@ -0,0 +1,152 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Spills a HISTORY journal to its file and reads it back, directly and
+//through a Debugger that releases it on resume
+public class PauseJournalTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+
+	//Spilled text is not limited to the 65535 bytes of writeUTF
+	@Test
+	public void spill() throws IOException{
+		PauseJournal journal = new PauseJournal(PauseJournal.Mode.HISTORY, 4,
+				PauseJournal.Overflow.SPILL);
+		char[] chars = new char[1 << 17];
+		Arrays.fill(chars, 'x');
+		String large = new String(chars);
+		for(int i = 0; i < 10; i++){
+			journal.record(large + i, String.valueOf(i), i);
+		}
+		assertTrue(journal.getSpilledCount() > 0);
+		assertEquals(10, journal.size());
+		assertNull(journal.getFailure());
+		List<PauseJournal.Entry> entries;
+		try(PauseJournal.Drain view = journal.getEntries()){
+			//Recording goes on while the view is read
+			journal.record("late", "late", 10);
+			entries = readAll(view);
+		}
+		assertEquals(10, entries.size());
+		for(int i = 0; i < 10; i++){
+			assertEquals(large + i, entries.get(i).getKey());
+			assertEquals(String.valueOf(i), entries.get(i).getText());
+			assertEquals(i, entries.get(i).getTimeStamp());
+		}
+		//Reading the view leaves the journal as it was
+		assertEquals(11, journal.size());
+		try(PauseJournal.Drain drain = journal.take()){
+			assertEquals(11, readAll(drain).size());
+		}
+		assertTrue(journal.isEmpty());
+	}
+
+	//Every change made while paused reaches the updatables on resume, in
+	//the order it was made, spilled ones included
+	@Test
+	public void releaseOrder() throws InterruptedException, IOException{
+		DispatchExecutor serial = new DispatchExecutor(1,
+				DispatchExecutor.DEFAULT_QUEUE_CAPACITY, DispatchExecutor.OverflowPolicy.BLOCK);
+		Debugger<Object> debugger = new Debugger<Object>(20);
+		try{
+			debugger.setDispatcher(serial);
+			PauseJournal journal = new PauseJournal(PauseJournal.Mode.HISTORY, 4,
+					PauseJournal.Overflow.SPILL);
+			debugger.setPauseJournal(journal);
+			Pushes pushes = new Pushes();
+			debugger.addUpdatable(pushes);
+			debugger.initHeadless();
+			IntDynamicVariableHolder variable = new IntDynamicVariableHolder("count", 0);
+			variable.setDispatcher(serial);
+			debugger.attach(variable);
+			//The value on attaching
+			await(() -> pushes.values().size() == 1);
+			pushes.clear();
+			Thread paused = new Thread(() -> debugger.pause(true, true));
+			paused.start();
+			//Changes are held once the last update after the pause is done
+			await(() -> debugger.isPaused() && !debugger.updateLast);
+			for(int i = 1; i <= 20; i++){
+				variable.set(i);
+			}
+			await(() -> journal.size() == 20);
+			assertTrue(journal.getSpilledCount() > 0);
+			assertTrue(pushes.values().isEmpty());
+			debugger.resume();
+			paused.join(TIMEOUT_MILLIS);
+			await(() -> pushes.values().size() == 20);
+			for(int i = 1; i <= 20; i++){
+				assertEquals(String.valueOf(i), pushes.values().get(i - 1));
+			}
+			assertNull(journal.getFailure());
+		}
+		finally{
+			debugger.close();
+			serial.shutdown();
+		}
+	}
+
+	protected static List<PauseJournal.Entry> readAll(PauseJournal.Drain drain)
+			throws IOException{
+		List<PauseJournal.Entry> entries = new ArrayList<PauseJournal.Entry>();
+		List<PauseJournal.Entry> batch;
+		while((batch = drain.nextBatch()) != null){
+			entries.addAll(batch);
+		}
+		return entries;
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	protected static class Pushes implements DebuggerUpdatable{
+
+		protected List<String> values = new ArrayList<String>();
+
+		public synchronized List<String> values(){
+			return new ArrayList<String>(values);
+		}
+
+		public synchronized void clear(){
+			values.clear();
+		}
+
+		@Override
+		public void update(Map<String, String> table){
+			//Only pushes are checked
+		}
+
+		@Override
+		public synchronized void push(String key, String value){
+			if("count".equals(key)){
+				values.add(value);
+			}
+		}
+
+		@Override
+		public void setExecutionState(String state){
+			//Not needed
+		}
+
+	}
+}
@@ -0,0 +1,181 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+//Records changes with a ChangeRecorder and reads them back with a
+//RecordingReader and a ReplaySource
+public class RecordingTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+	protected static final String ODD_NAME = "odd\tname\nwith \\ breaks";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	protected DispatchExecutor serial;
+	protected File directory;
+
+	@Before
+	public void setUp(){
+		serial = new DispatchExecutor(1, DispatchExecutor.DEFAULT_QUEUE_CAPACITY,
+				DispatchExecutor.OverflowPolicy.BLOCK);
+		directory = folder.getRoot();
+	}
+
+	@After
+	public void tearDown(){
+		serial.shutdown();
+	}
+
+	@Test
+	public void roundTrip() throws IOException, InterruptedException{
+		ChangeRecorder recorder = new ChangeRecorder(directory, "rec");
+		IntDynamicVariableHolder count = new IntDynamicVariableHolder("count", 0);
+		count.setDispatcher(serial);
+		count.addIntChangeListener(recorder);
+		DynamicVariableHolder<Object> odd = new DynamicVariableHolder<Object>(ODD_NAME, null);
+		odd.setDispatcher(serial);
+		odd.addChangeListener(recorder);
+		for(int i = 1; i <= 10; i++){
+			count.set(i);
+		}
+		odd.set("text");
+		await(() -> recorder.getRecordedCount() == 11);
+		recorder.close();
+		assertEquals(0, recorder.getDroppedCount());
+
+		RecordingReader reader = new RecordingReader(directory, "rec", 4);
+		assertEquals(11, reader.getRecordCount());
+		assertTrue(reader.getNames().containsValue(ODD_NAME));
+		List<Object> counts = new ArrayList<Object>();
+		while(reader.next()){
+			if("count".equals(reader.getName(reader.getId()))){
+				counts.add(reader.getValue());
+			}
+			else{
+				assertEquals(ODD_NAME, reader.getName(reader.getId()));
+				assertEquals("text", reader.getValue());
+			}
+		}
+		assertEquals(10, counts.size());
+		assertEquals(10, counts.get(9));
+		assertTrue(reader.seek(Long.MIN_VALUE));
+		assertTrue(reader.next());
+		assertEquals(1, reader.getValue());
+		assertFalse(reader.seek(Long.MAX_VALUE));
+		reader.close();
+
+		Debugger<Object> debugger = new Debugger<Object>(20);
+		ReplaySource replay = new ReplaySource(directory, "rec", debugger);
+		try{
+			replay.setSpeed(ReplaySource.MAXIMUM_SPEED);
+			replay.start();
+			replay.awaitFinished();
+			assertTrue(replay.isFinished());
+			assertNull(replay.getFailure());
+			assertEquals(10, replay.getVariable("count").get());
+			assertEquals("text", replay.getVariable(ODD_NAME).get());
+		}
+		finally{
+			replay.close();
+			debugger.close();
+		}
+	}
+
+	//A double recorded for a variable first recorded as an int is converted
+	//to an int, not cast from its bits
+	@Test
+	public void doubleIntoInt() throws IOException, InterruptedException{
+		ChangeRecorder recorder = new ChangeRecorder(directory, "rec");
+		DynamicVariableHolder<Number> number = new DynamicVariableHolder<Number>("n", 0);
+		number.setDispatcher(serial);
+		number.addChangeListener(recorder);
+		number.set(1);
+		number.set(2.75);
+		await(() -> recorder.getRecordedCount() == 2);
+		recorder.close();
+		Debugger<Object> debugger = new Debugger<Object>(20);
+		ReplaySource replay = new ReplaySource(directory, "rec", debugger);
+		try{
+			replay.setSpeed(ReplaySource.MAXIMUM_SPEED);
+			replay.start();
+			replay.awaitFinished();
+			assertEquals(2, replay.getVariable("n").get());
+		}
+		finally{
+			replay.close();
+			debugger.close();
+		}
+	}
+
+	@Test
+	public void empty() throws IOException, InterruptedException{
+		new ChangeRecorder(directory, "rec").close();
+		RecordingReader reader = new RecordingReader(directory, "rec");
+		assertEquals(0, reader.getRecordCount());
+		reader.seekIndexEntry(0);
+		assertFalse(reader.next());
+		assertFalse(reader.seek(0));
+		reader.close();
+		Debugger<Object> debugger = new Debugger<Object>(20);
+		ReplaySource replay = new ReplaySource(directory, "rec", debugger);
+		try{
+			replay.seek(0);
+			replay.start();
+			replay.awaitFinished();
+			assertTrue(replay.isFinished());
+			assertNull(replay.getFailure());
+		}
+		finally{
+			replay.close();
+			debugger.close();
+		}
+	}
+
+	@Test
+	public void corrupt() throws IOException, InterruptedException{
+		ChangeRecorder recorder = new ChangeRecorder(directory, "rec");
+		recorder.setExecutionState("Running");
+		await(() -> recorder.getRecordedCount() == 1);
+		recorder.close();
+		try(RandomAccessFile file = new RandomAccessFile(
+				RecordFormat.segmentFile(directory, "rec", 0), "rw")){
+			//The length of the string runs past the end of the segment
+			file.seek(RecordFormat.HEADER_SIZE + RecordFormat.RECORD_HEADER_SIZE);
+			file.writeInt(Integer.MAX_VALUE);
+		}
+		try{
+			new RecordingReader(directory, "rec");
+			fail("Read a corrupt record");
+		}
+		catch(IOException e){
+			assertTrue(e.getMessage().startsWith("Truncated or corrupt record"));
+		}
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.assisstion.DynamicDebugger.Debugger.DebuggerUpdatable;
+
+//Runs a RemoteSink and a RemoteDebuggerClient against each other over the
+//loopback interface
+public class RemoteLoopbackTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+
+	protected Debugger<Object> debugger;
+	protected RemoteSink sink;
+	protected RemoteDebuggerClient client;
+	protected Received received = new Received();
+
+	@Before
+	public void setUp() throws IOException{
+		debugger = new Debugger<Object>(20);
+		sink = new RemoteSink(debugger, new InetSocketAddress(
+				InetAddress.getLoopbackAddress(), 0), 5);
+		debugger.addUpdatable(sink);
+		debugger.initHeadless();
+		client = new RemoteDebuggerClient("127.0.0.1", sink.getPort());
+		client.addUpdatable(received);
+	}
+
+	@After
+	public void tearDown() throws IOException{
+		client.close();
+		sink.close();
+		debugger.close();
+	}
+
+	//Suppliers added later are sent as changes, but a new viewer is sent
+	//every supplier value as a table
+	@Test
+	public void table() throws InterruptedException, IOException{
+		debugger.attachSupplier(Debugger.keyedSupplier("a", () -> 1));
+		debugger.attachSupplier(Debugger.keyedSupplier("b", () -> "two"));
+		awaitTable(2);
+		client.connect();
+		await(() -> received.lastTable() != null);
+		assertEquals(2, received.lastTable().size());
+		assertEquals("1", received.lastTable().get("a"));
+		assertEquals("two", received.lastTable().get("b"));
+	}
+
+	//A single dispatch thread keeps the changes in order, so the last one
+	//is the last to arrive
+	@Test
+	public void push() throws InterruptedException, IOException{
+		DispatchExecutor serial = new DispatchExecutor(1,
+				DispatchExecutor.DEFAULT_QUEUE_CAPACITY, DispatchExecutor.OverflowPolicy.BLOCK);
+		debugger.setDispatcher(serial);
+		client.connect();
+		IntDynamicVariableHolder variable = new IntDynamicVariableHolder("count", 0);
+		variable.setDispatcher(serial);
+		debugger.attach(variable);
+		for(int i = 1; i <= 100; i++){
+			variable.set(i);
+		}
+		try{
+			await(() -> "100".equals(received.values.get("count")));
+		}
+		finally{
+			serial.shutdown();
+		}
+	}
+
+	@Test
+	public void pause() throws InterruptedException, IOException{
+		client.connect();
+		Thread paused = new Thread(() -> debugger.pause(false));
+		paused.start();
+		await(() -> "Paused".equals(received.state));
+		assertTrue(debugger.isPaused());
+		client.resumeExecution(0);
+		paused.join(TIMEOUT_MILLIS);
+		assertTrue(!paused.isAlive());
+		await(() -> "Running".equals(received.state));
+		assertNull(client.getFailure());
+	}
+
+	//The table does not fit in one frame, so it is split over several
+	@Test
+	public void largeTable() throws InterruptedException, IOException{
+		char[] chars = new char[1 << 20];
+		Arrays.fill(chars, 'x');
+		String large = new String(chars);
+		int count = WireProtocol.MAX_FRAME_SIZE / chars.length + 4;
+		for(int i = 0; i < count; i++){
+			debugger.attachSupplier(Debugger.keyedSupplier("large" + i, () -> large));
+		}
+		awaitTable(count);
+		client.connect();
+		await(() -> received.lastTable() != null);
+		assertEquals(count, received.lastTable().size());
+		for(String value : received.lastTable().values()){
+			assertEquals(large, value);
+		}
+		assertTrue(client.isConnected());
+		assertNull(sink.getFailure());
+	}
+
+	protected void awaitTable(int size) throws InterruptedException{
+		await(() -> {
+			synchronized(sink.latestTable){
+				return sink.latestTable.size() == size;
+			}
+		});
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	protected static class Received implements DebuggerUpdatable{
+
+		protected List<Map<String, String>> tables = new ArrayList<Map<String, String>>();
+		protected Map<String, String> values = new ConcurrentHashMap<String, String>();
+		protected volatile String state;
+
+		public synchronized Map<String, String> lastTable(){
+			return tables.isEmpty() ? null : tables.get(tables.size() - 1);
+		}
+
+		@Override
+		public synchronized void update(Map<String, String> table){
+			tables.add(table);
+		}
+
+		@Override
+		public void push(String key, String value){
+			if(value == null){
+				values.remove(key);
+			}
+			else{
+				values.put(key, value);
+			}
+		}
+
+		@Override
+		public void setExecutionState(String state){
+			this.state = state;
+		}
+
+	}
+}
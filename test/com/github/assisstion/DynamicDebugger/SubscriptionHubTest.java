@@ -0,0 +1,140 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+//Routes changes by exact name, prefix and glob, and attaches published
+//variables to a Debugger by name
+public class SubscriptionHubTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+
+	protected DispatchExecutor serial;
+	protected SubscriptionHub hub = new SubscriptionHub();
+
+	@Before
+	public void setUp(){
+		serial = new DispatchExecutor(1, DispatchExecutor.DEFAULT_QUEUE_CAPACITY,
+				DispatchExecutor.OverflowPolicy.BLOCK);
+	}
+
+	@After
+	public void tearDown(){
+		serial.shutdown();
+	}
+
+	@Test
+	public void routing() throws InterruptedException{
+		Names exact = new Names();
+		Names prefix = new Names();
+		Names glob = new Names();
+		hub.subscribe("net.rx", exact);
+		hub.subscribe("net.*", prefix);
+		hub.subscribe("*.r?", glob);
+		assertEquals(3, hub.getSubscriptionCount());
+		for(String name : Arrays.asList("net.rx", "net.tx", "disk.rd", "cpu", "net.rxq")){
+			publish(name).set(1);
+		}
+		await(() -> prefix.size() == 3 && glob.size() == 2);
+		assertEquals(names("net.rx"), exact.get());
+		assertEquals(names("net.rx", "net.tx", "net.rxq"), prefix.get());
+		assertEquals(names("net.rx", "disk.rd"), glob.get());
+	}
+
+	//A cancelled subscription is no longer routed to, and a new one is
+	@Test
+	public void cancel() throws InterruptedException{
+		Names first = new Names();
+		Names second = new Names();
+		SubscriptionHub.Subscription subscription = hub.subscribe("a*", first);
+		DynamicVariableHolder<Integer> variable = publish("ab");
+		variable.set(1);
+		await(() -> first.size() == 1);
+		assertTrue(subscription.cancel());
+		assertFalse(subscription.cancel());
+		hub.subscribe("ab", second);
+		variable.set(2);
+		await(() -> second.size() == 1);
+		assertEquals(1, first.size());
+	}
+
+	//Variables are attached while published, so they can be unattached and
+	//are released when the watch is cancelled
+	@Test
+	public void debugger() throws InterruptedException, IOException{
+		Debugger<Object> debugger = new Debugger<Object>(20);
+		try{
+			DynamicVariableHolder<Integer> a = publish("app.a");
+			SubscriptionHub.Watch watch = debugger.subscribe(hub, "app.*", Integer.class);
+			assertTrue(debugger.dynamicVariables.contains(a));
+			DynamicVariableHolder<Integer> b = publish("app.b");
+			DynamicVariableHolder<String> c = new DynamicVariableHolder<String>("app.c", "text");
+			hub.publish(c);
+			publish("other");
+			assertEquals(new HashSet<DynamicVariable<?>>(Arrays.asList(a, b)),
+					new HashSet<DynamicVariable<?>>(debugger.dynamicVariables));
+			hub.unpublish(b);
+			assertFalse(debugger.dynamicVariables.contains(b));
+			assertTrue(debugger.unattach(a));
+			hub.unpublish(a);
+			hub.publish(a);
+			assertTrue(debugger.dynamicVariables.contains(a));
+			assertTrue(watch.cancel());
+			assertTrue(debugger.dynamicVariables.isEmpty());
+		}
+		finally{
+			debugger.close();
+		}
+	}
+
+	protected DynamicVariableHolder<Integer> publish(String name){
+		DynamicVariableHolder<Integer> variable = new DynamicVariableHolder<Integer>(name, 0);
+		variable.setDispatcher(serial);
+		hub.publish(variable);
+		return variable;
+	}
+
+	protected static Set<String> names(String... names){
+		return new TreeSet<String>(Arrays.asList(names));
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	protected static class Names implements VariableListener<Object>{
+
+		protected Set<String> names = new TreeSet<String>();
+
+		public synchronized Set<String> get(){
+			return new TreeSet<String>(names);
+		}
+
+		public synchronized int size(){
+			return names.size();
+		}
+
+		@Override
+		public synchronized void changeOccured(VariableChangeEvent<? extends Object> e){
+			names.add(e.getSource().getName());
+		}
+
+	}
+}
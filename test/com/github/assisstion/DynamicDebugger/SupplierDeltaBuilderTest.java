@@ -0,0 +1,92 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+//Merging deltas for a sink that falls behind, and resyncing it with a full one
+public class SupplierDeltaBuilderTest{
+
+	//Every key ends up in the one part that takes the sink from the first
+	//base version to the last version
+	@Test
+	public void merge(){
+		SupplierDeltaBuilder builder = new SupplierDeltaBuilder(false);
+		builder.merge(delta(0, 1, map("a", "1"), map("b", "2"), set("c")));
+		builder.merge(delta(1, 2, map("c", "4"), map("a", "3"), set("b")));
+		SupplierDelta delta = builder.take();
+		assertFalse(delta.isFull());
+		assertEquals(0, delta.getBaseVersion());
+		assertEquals(2, delta.getVersion());
+		assertEquals(map("a", "3"), delta.getAdded());
+		assertEquals(map("c", "4"), delta.getChanged());
+		assertEquals(set("b"), delta.getRemoved());
+		assertNull(builder.take());
+	}
+
+	//A key added and removed before the sink saw it is not sent at all
+	@Test
+	public void addedThenRemoved(){
+		SupplierDeltaBuilder builder = new SupplierDeltaBuilder(false);
+		builder.merge(delta(0, 1, map("a", "1"), map(), set()));
+		builder.merge(delta(1, 2, map(), map(), set("a")));
+		assertTrue(builder.isEmpty());
+		assertNull(builder.take());
+	}
+
+	//Nothing is taken until the full values are given; changes merged after
+	//them are sent with them
+	@Test
+	public void resync(){
+		SupplierDeltaBuilder builder = new SupplierDeltaBuilder(true);
+		builder.merge(delta(0, 1, map("a", "1"), map(), set()));
+		assertNull(builder.take());
+		builder.reset(map("a", "1", "b", "2"), 5, 50);
+		builder.merge(delta(5, 6, map("c", "3"), map("a", "4"), set("b")));
+		SupplierDelta full = builder.take();
+		assertTrue(full.isFull());
+		assertEquals(6, full.getVersion());
+		assertEquals(map("a", "4", "c", "3"), full.getAdded());
+		assertTrue(full.getChanged().isEmpty());
+		assertTrue(full.getRemoved().isEmpty());
+		builder.merge(delta(6, 7, map(), map("c", "5"), set()));
+		SupplierDelta next = builder.take();
+		assertFalse(next.isFull());
+		assertEquals(6, next.getBaseVersion());
+		assertEquals(map("c", "5"), next.getChanged());
+		builder.requestFull();
+		builder.merge(delta(7, 8, map(), map("c", "6"), set()));
+		assertNull(builder.take());
+	}
+
+	protected static SupplierDelta delta(long base, long version, Map<String, String> added,
+			Map<String, String> changed, Set<String> removed){
+		return new SupplierDelta(base, version, version * 10, false, added, changed, removed);
+	}
+
+	protected static Map<String, String> map(String... keysAndValues){
+		if(keysAndValues.length == 0){
+			return Collections.emptyMap();
+		}
+		Map<String, String> map = new HashMap<String, String>();
+		for(int i = 0; i < keysAndValues.length; i += 2){
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return map;
+	}
+
+	protected static Set<String> set(String... keys){
+		Set<String> set = new HashSet<String>();
+		Collections.addAll(set, keys);
+		return set;
+	}
+}
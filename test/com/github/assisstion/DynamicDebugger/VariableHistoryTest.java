@@ -0,0 +1,67 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+//Samples recorded out of order are kept in timestamp order, on and off the
+//heap and once the ring buffer has wrapped around
+public class VariableHistoryTest{
+
+	@Test
+	public void outOfOrder(){
+		ObjectHistory<String> history = new ObjectHistory<String>(8);
+		history.record(10, "a");
+		history.record(30, "c");
+		history.record(20, "b");
+		history.record(5, "first");
+		history.record(40, "d");
+		assertEquals(5, history.size());
+		long[] expected = {5, 10, 20, 30, 40};
+		for(int i = 0; i < expected.length; i++){
+			assertEquals(expected[i], history.getTimeStamp(i));
+		}
+		assertEquals("first", history.get(0));
+		assertEquals("d", history.get(4));
+	}
+
+	//The oldest samples are overwritten, whatever order they came in
+	@Test
+	public void wrapped(){
+		for(boolean offHeap : new boolean[]{false, true}){
+			LongHistory history = new LongHistory(4, offHeap);
+			long[] times = {1, 3, 2, 6, 4, 5, 8, 7};
+			for(long time : times){
+				history.record(time, time * 10);
+			}
+			assertEquals(4, history.size());
+			assertEquals(8, history.getTotalCount());
+			for(int i = 0; i < 4; i++){
+				assertEquals(i + 5, history.getTimeStamp(i));
+				assertEquals((i + 5) * 10, history.getLong(i));
+			}
+		}
+	}
+
+	//from is inclusive and to is exclusive
+	@Test
+	public void range(){
+		DoubleHistory history = new DoubleHistory(16);
+		for(int time : new int[]{7, 1, 4, 9, 2, 5}){
+			history.record(time, time / 2.0);
+		}
+		List<HistoryEntry<Double>> range = history.range(2, 7);
+		assertEquals(3, range.size());
+		assertEquals(2, range.get(0).getTimeStamp());
+		assertEquals(4, range.get(1).getTimeStamp());
+		assertEquals(5, range.get(2).getTimeStamp());
+		assertEquals(2.5, range.get(2).getValue(), 0);
+		assertEquals(0, history.range(10, 20).size());
+		assertEquals(6, history.range(Long.MIN_VALUE, Long.MAX_VALUE).size());
+		List<HistoryEntry<Double>> last = history.last(2);
+		assertEquals(7, last.get(0).getTimeStamp());
+		assertEquals(9, last.get(1).getTimeStamp());
+	}
+}
@@ -0,0 +1,88 @@
+package com.github.assisstion.DynamicDebugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+//Tasks for the same source and target run one at a time and in the order
+//they were dispatched, whatever other pairs are doing
+public class VirtualThreadDispatchExecutorTest{
+
+	protected static final long TIMEOUT_MILLIS = 10000;
+	protected static final int PAIRS = 8;
+	protected static final int TASKS = 500;
+
+	protected VirtualThreadDispatchExecutor executor;
+
+	@Before
+	public void setUp(){
+		executor = new VirtualThreadDispatchExecutor(16,
+				DispatchExecutor.OverflowPolicy.BLOCK);
+	}
+
+	@After
+	public void tearDown(){
+		executor.shutdown();
+	}
+
+	@Test
+	public void perPairOrder() throws InterruptedException{
+		Object source = new Object();
+		List<Object> targets = new ArrayList<Object>();
+		List<List<Integer>> runs = new ArrayList<List<Integer>>();
+		AtomicInteger ran = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		for(int p = 0; p < PAIRS; p++){
+			targets.add(new Object());
+			runs.add(new ArrayList<Integer>());
+		}
+		AtomicInteger[] active = new AtomicInteger[PAIRS];
+		for(int p = 0; p < PAIRS; p++){
+			active[p] = new AtomicInteger();
+		}
+		for(int i = 0; i < TASKS; i++){
+			for(int p = 0; p < PAIRS; p++){
+				int pair = p;
+				int index = i;
+				executor.dispatch(source, targets.get(p), () -> {
+					if(active[pair].incrementAndGet() != 1){
+						overlaps.incrementAndGet();
+					}
+					ran.incrementAndGet();
+					synchronized(runs.get(pair)){
+						runs.get(pair).add(index);
+					}
+					active[pair].decrementAndGet();
+				});
+			}
+		}
+		await(() -> ran.get() == PAIRS * TASKS);
+		assertEquals(0, overlaps.get());
+		for(List<Integer> run : runs){
+			synchronized(run){
+				assertEquals(TASKS, run.size());
+				for(int i = 0; i < TASKS; i++){
+					assertEquals(i, (int) run.get(i));
+				}
+			}
+		}
+		await(() -> executor.getQueueSize() == 0);
+	}
+
+	protected static void await(BooleanSupplier condition) throws InterruptedException{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while(!condition.getAsBoolean()){
+			assertTrue("Timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+}